@@ -0,0 +1,44 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Moves;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+    @Param({"0", "1", "2", "3", "4"})
+    public int wildCount;
+
+    private final Moves moves = new Moves();
+    private final int[] buffer = new int[Action.PLAY_COUNT];
+    private Cards<?>[] hands;
+    private int i;
+
+    @Setup
+    public void setup() {
+        hands = Fixtures.hands(wildCount, 42);
+    }
+
+    private Cards<?> next() {
+        return hands[i++ & Fixtures.HAND_MASK];
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        Action.stream(next()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public int generate() {
+        return moves.generate(next(), buffer);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.dejohn.killer.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+            .include(args.length > 1 ? args[1] : Benchmarks.class.getPackageName() + ".*")
+            .resultFormat(ResultFormatType.JSON)
+            .result(args.length > 0 ? args[0] : "results.json")
+            .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,45 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Cards;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardsBenchmark {
+    @Param({"0", "2", "4"})
+    public int wildCount;
+
+    private Cards<?>[] hands;
+    private int i;
+
+    @Setup
+    public void setup() {
+        hands = Fixtures.hands(wildCount, 42);
+    }
+
+    private Cards<?> next() {
+        return hands[i++ & Fixtures.HAND_MASK];
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        next().stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void bitStream(Blackhole blackhole) {
+        next().bitStream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public long count() {
+        return next().stream().count();
+    }
+}
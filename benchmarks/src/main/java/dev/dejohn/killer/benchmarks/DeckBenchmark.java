@@ -0,0 +1,44 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Card;
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.cards.Deck;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+    @Param({"0", "4", "12"})
+    public int wildCount;
+
+    @Param({"2", "4"})
+    public int players;
+
+    private Deck deck;
+    private long[] hands;
+
+    @Setup
+    public void setup() {
+        var source = wildCount == 0 ? Deck.natural() : Deck.upTo(Card.Wild.values()[wildCount - 1]);
+        deck = source.seeded(42);
+        hands = new long[players];
+    }
+
+    @Benchmark
+    public List<Cards<?>> deal() {
+        return deck.deal(players);
+    }
+
+    @Benchmark
+    public long[] dealInto() {
+        deck.deal(hands);
+        return hands;
+    }
+}
@@ -0,0 +1,19 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+
+import java.util.stream.Stream;
+
+final class FirstOptionBrain implements Brain {
+    @Override
+    public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+        return options.findFirst().orElseThrow();
+    }
+
+    @Override
+    public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+        return options.findFirst().<Action<T>>map(p -> p).orElseGet(Action::pass);
+    }
+}
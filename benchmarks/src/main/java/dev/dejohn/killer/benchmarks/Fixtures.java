@@ -0,0 +1,55 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Card;
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.cards.Deck;
+import dev.dejohn.killer.cards.Rank;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Action.Depth;
+import dev.dejohn.killer.game.Action.Length;
+
+import java.util.SplittableRandom;
+
+import static dev.dejohn.killer.cards.Suit.HEARTS;
+
+final class Fixtures {
+    static final int HAND_COUNT = 1024;
+    static final int HAND_MASK = HAND_COUNT - 1;
+    static final int PLAYER_COUNT = 4;
+
+    static Cards<?>[] hands(int wildCount, long seed) {
+        var random = new SplittableRandom(seed);
+        var deck = Deck.natural().seeded(seed);
+        var wilds = wildCount == 0 ? Cards.of() : Deck.upTo(Card.Wild.values()[wildCount - 1]).wilds();
+        var hands = new Cards<?>[HAND_COUNT];
+
+        for (int i = 0; i < HAND_COUNT; i++) {
+            var hand = deck.deal(PLAYER_COUNT).getFirst();
+
+            for (int w = 0; w < wildCount; w++) {
+                long natural = hand.naturals().bitStream().skip(random.nextInt(hand.naturals().size())).findFirst().orElseThrow();
+                hand = hand.remove(natural);
+            }
+
+            hands[i] = hand.add(wilds);
+        }
+
+        return hands;
+    }
+
+    static Action.Play<?> toBeat(String type) {
+        return switch (type) {
+            case "SINGLE" -> Action.of(Rank.SEVEN, Depth.SINGLE, Length.ONE);
+            case "TWO_OF_HEARTS" -> Action.single(Rank.TWO.of(HEARTS));
+            case "PAIR" -> Action.of(Rank.SEVEN, Depth.PAIR, Length.ONE);
+            case "TRIPLE" -> Action.of(Rank.SEVEN, Depth.TRIPLE, Length.ONE);
+            case "RUN" -> Action.of(Rank.SIX, Depth.SINGLE, Length.FOUR);
+            case "PAIRS_BOMB" -> Action.of(Rank.SIX, Depth.PAIR, Length.THREE);
+            case "TRIPLES_BOMB" -> Action.of(Rank.SIX, Depth.TRIPLE, Length.THREE);
+            case "QUAD" -> Action.of(Rank.SEVEN, Depth.QUAD, Length.ONE);
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    private Fixtures() {}
+}
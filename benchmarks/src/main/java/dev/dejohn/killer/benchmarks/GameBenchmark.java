@@ -0,0 +1,42 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Card;
+import dev.dejohn.killer.cards.Deck;
+import dev.dejohn.killer.game.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"0", "2"})
+    public int wildCount;
+
+    @Param({"2", "4"})
+    public int players;
+
+    private Game game;
+
+    @Setup
+    public void setup() {
+        var deck = wildCount == 0 ? Deck.natural() : Deck.upTo(Card.Wild.values()[wildCount - 1]);
+        Set<Brain> brains = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int p = 0; p < players; p++) brains.add(new FirstOptionBrain());
+
+        game = Game.headless(deck.seeded(42), brains);
+    }
+
+    @Benchmark
+    public void game() {
+        game.start();
+    }
+}
@@ -0,0 +1,56 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.cards.HandKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class HandKernelsBenchmark {
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    private HandKernels kernel;
+    private long[] hands;
+    private long[] out;
+
+    @Setup
+    public void setup() {
+        kernel = kernels.equals("vector") ? HandKernels.vector() : HandKernels.scalar();
+        hands = new long[Fixtures.HAND_COUNT];
+        out = new long[Fixtures.HAND_COUNT];
+
+        Cards<?>[] cards = Fixtures.hands(0, 42);
+        for (int i = 0; i < hands.length; i++) hands[i] = cards[i].bitVector;
+    }
+
+    @Benchmark
+    public long[] histograms() {
+        kernel.histograms(hands, out);
+        return out;
+    }
+
+    @Benchmark
+    public long[] suitCounts() {
+        kernel.suitCounts(hands, out);
+        return out;
+    }
+
+    @Benchmark
+    public long[] bombs() {
+        kernel.bombs(hands, out);
+        return out;
+    }
+
+    @Benchmark
+    public long[] longestRuns() {
+        kernel.longestRuns(hands, out);
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.dejohn.killer.benchmarks;
+
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.game.Action;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayableBenchmark {
+    @Param({"SINGLE", "TWO_OF_HEARTS", "PAIR", "TRIPLE", "RUN", "PAIRS_BOMB", "TRIPLES_BOMB", "QUAD"})
+    public String toBeat;
+
+    @Param({"0", "2", "4"})
+    public int wildCount;
+
+    private Action.Play<?> play;
+    private Cards<?>[] hands;
+    private int i;
+
+    @Setup
+    public void setup() {
+        play = Fixtures.toBeat(toBeat);
+        hands = Fixtures.hands(wildCount, 42);
+    }
+
+    private Cards<?> next() {
+        return hands[i++ & Fixtures.HAND_MASK];
+    }
+
+    @Benchmark
+    public void playable(Blackhole blackhole) {
+        play.playable(next()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public Cards<?> select() {
+        return play.select(next());
+    }
+}
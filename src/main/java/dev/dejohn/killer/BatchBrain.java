@@ -0,0 +1,8 @@
+package dev.dejohn.killer;
+
+import dev.dejohn.killer.game.DecisionBatch;
+
+// decides every pending decision of a batch at once, choosing one of its options (or a pass) for each
+public interface BatchBrain {
+    void decide(DecisionBatch batch);
+}
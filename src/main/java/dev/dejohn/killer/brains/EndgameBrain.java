@@ -0,0 +1,77 @@
+package dev.dejohn.killer.brains;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Endgame;
+import dev.dejohn.killer.game.Moves;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// once a single opponent is left every unseen card is in its hand, so small enough positions are solved exactly
+public class EndgameBrain implements Brain {
+    private static final int NONE = Integer.MIN_VALUE;
+
+    public static final int DEFAULT_THRESHOLD = 12;
+
+    public static EndgameBrain wrap(Brain brain) {
+        return new EndgameBrain(brain, DEFAULT_THRESHOLD, new Endgame());
+    }
+
+    private final Brain brain;
+    private final int threshold;
+    private final Endgame endgame;
+
+    public EndgameBrain(Brain brain, int threshold, Endgame endgame) {
+        if (threshold < 2) throw new IllegalArgumentException();
+
+        this.brain = brain;
+        this.threshold = threshold;
+        this.endgame = endgame;
+    }
+
+    @Override
+    public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+        int code = solve(context, Moves.LEAD);
+        if (code == NONE) return brain.getAction(context, options);
+
+        List<? extends Action.Play<T>> plays = options.toList();
+        for (var play : plays) if (play.encode() == code) return play;
+        return brain.getAction(context, plays.stream());
+    }
+
+    @Override
+    public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+        int code = solve(context, toBeat.encode());
+        if (code == NONE) return brain.getAction(context, toBeat, options);
+        if (code == Action.PASS_CODE) return Action.pass();
+
+        List<? extends Action.Play<T>> plays = options.toList();
+        for (var play : plays) if (play.encode() == code) return play;
+        return brain.getAction(context, toBeat, plays.stream());
+    }
+
+    private int solve(Context context, int toBeat) {
+        int opponent = -1;
+
+        for (int i = 0; i < context.opponentCount(); i++) {
+            if (context.cardCount(i) == 0) continue;
+            if (opponent >= 0) return NONE;
+            opponent = i;
+        }
+
+        long hand = context.handBits();
+        long other = context.unseenBits();
+
+        if (opponent < 0 || Long.bitCount(other) != context.cardCount(opponent)) return NONE;
+        if (Long.bitCount(hand) + Long.bitCount(other) > threshold) return NONE;
+
+        return endgame.solve(hand, other, toBeat, context.isActive(opponent)).move();
+    }
+
+    @Override
+    public String toString() {
+        return brain + "+endgame";
+    }
+}
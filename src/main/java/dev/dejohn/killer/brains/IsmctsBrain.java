@@ -0,0 +1,393 @@
+package dev.dejohn.killer.brains;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Moves;
+import dev.dejohn.killer.game.PlayableCache;
+import dev.dejohn.killer.game.Sampler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static dev.dejohn.killer.cards.Rank.THREE;
+import static dev.dejohn.killer.cards.Suit.CLUBS;
+
+public class IsmctsBrain implements Brain {
+    private static final int LEAD = Moves.LEAD;
+    private static final int PASS = Action.PASS_CODE;
+    private static final int NO_NODE = -1;
+    private static final long THREE_OF_CLUBS = THREE.of(CLUBS).getBitVector();
+    private static final int MOVE_WORDS = (Action.PLAY_COUNT + Long.SIZE) / Long.SIZE;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    public static final double DEFAULT_EXPLORATION = 0.7;
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    public static IsmctsBrain iterations(int iterations) {
+        return new IsmctsBrain(iterations, 0, DEFAULT_EXPLORATION, DEFAULT_MAX_NODES, new SplittableRandom());
+    }
+
+    public static IsmctsBrain millis(long millis) {
+        return new IsmctsBrain(Integer.MAX_VALUE, millis * 1_000_000, DEFAULT_EXPLORATION, DEFAULT_MAX_NODES, new SplittableRandom());
+    }
+
+    private final int iterations;
+    private final long nanos;
+    private final double exploration;
+    private final int maxNodes;
+    private final SplittableRandom random;
+
+    private final Sampler sampler;
+    private final Moves moves;
+    private final int[] buffer = new int[Action.PLAY_COUNT + 1];
+    private final int[] rootMoves = new int[Action.PLAY_COUNT + 1];
+    private final long[] legal = new long[MOVE_WORDS];
+    private int rootMoveCount;
+
+    private int[] move = new int[INITIAL_CAPACITY];
+    private int[] player = new int[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] visits = new int[INITIAL_CAPACITY];
+    private int[] availability = new int[INITIAL_CAPACITY];
+    private double[] reward = new double[INITIAL_CAPACITY];
+    private long[] signature = new long[INITIAL_CAPACITY];
+    private int nodeCount = 0;
+    private int chosen = NO_NODE;
+
+    private int seats = 0;
+    private long[] hands = new long[0];
+    private int[] positions = new int[0];
+    private int[] rootCounts = new int[0];
+    private long rootHand;
+    private long unseen;
+    private int rootActive;
+    private int rootToBeat;
+
+    private int active;
+    private int in;
+    private int toBeat;
+    private int current;
+    private int finished;
+
+    public IsmctsBrain(int iterations, long nanos, double exploration, int maxNodes, SplittableRandom random) {
+        this(iterations, nanos, exploration, maxNodes, random, null);
+    }
+
+    public IsmctsBrain(int iterations, long nanos, double exploration, int maxNodes, SplittableRandom random, PlayableCache cache) {
+        if (iterations <= 0 || nanos < 0 || maxNodes < 2) throw new IllegalArgumentException();
+
+        this.iterations = iterations;
+        this.nanos = nanos;
+        this.exploration = exploration;
+        this.maxNodes = maxNodes;
+        this.random = random;
+        this.sampler = new Sampler(random);
+        this.moves = new Moves(cache);
+    }
+
+    @Override
+    public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+        List<? extends Action.Play<T>> plays = options.toList();
+        int code = search(context, LEAD, plays);
+
+        for (var play : plays) if (play.encode() == code) return play;
+        return plays.getFirst();
+    }
+
+    @Override
+    public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+        List<? extends Action.Play<T>> plays = options.toList();
+        int code = search(context, toBeat.encode(), plays);
+
+        for (var play : plays) if (play.encode() == code) return play;
+        return Action.pass();
+    }
+
+    private int search(Context context, int toBeat, List<? extends Action.Play<?>> plays) {
+        observe(context, toBeat);
+
+        rootMoveCount = 0;
+        for (var play : plays) rootMoves[rootMoveCount++] = play.encode();
+        if (toBeat != LEAD) rootMoves[rootMoveCount++] = PASS;
+        if (rootMoveCount == 1) return rootMoves[0];
+
+        reroot();
+
+        long deadline = System.nanoTime() + nanos;
+        for (int i = 0; i < iterations && (nanos == 0 || System.nanoTime() < deadline) && !Thread.currentThread().isInterrupted(); i++) iterate();
+
+        int best = NO_NODE;
+        for (int c = firstChild[0]; c != NO_NODE; c = nextSibling[c]) {
+            if (isRootMove(move[c]) && (best == NO_NODE || visits[c] > visits[best])) best = c;
+        }
+
+        chosen = best;
+        return best == NO_NODE ? rootMoves[0] : move[best];
+    }
+
+    private void observe(Context context, int toBeat) {
+        int count = context.opponentCount() + 1;
+
+        if (count != seats) {
+            seats = count;
+            hands = new long[seats];
+            positions = new int[seats];
+            rootCounts = new int[seats];
+            chosen = NO_NODE;
+        }
+
+        rootHand = context.handBits();
+        rootCounts[0] = Long.bitCount(rootHand);
+        rootActive = 1;
+        unseen = context.unseenBits();
+        rootToBeat = toBeat;
+
+        for (int s = 1; s < seats; s++) {
+            rootCounts[s] = context.cardCount(s - 1);
+            if (context.isActive(s - 1)) rootActive |= 1 << s;
+        }
+    }
+
+    private boolean isRootMove(int code) {
+        for (int i = 0; i < rootMoveCount; i++) if (rootMoves[i] == code) return true;
+        return false;
+    }
+
+    private void reroot() {
+        long rootSignature = signature(rootCounts, rootActive, rootToBeat, 0);
+        int found = NO_NODE;
+
+        if (chosen != NO_NODE && nodeCount <= maxNodes / 2) {
+            for (int n = chosen; n < nodeCount; n++) {
+                if (signature[n] != rootSignature || !descends(n, chosen)) continue;
+                if (found == NO_NODE || visits[n] > visits[found]) found = n;
+            }
+        }
+
+        if (found == NO_NODE) {
+            nodeCount = 0;
+            newNode(NO_NODE, PASS, NO_NODE, rootSignature);
+            return;
+        }
+
+        move[0] = move[found];
+        player[0] = NO_NODE;
+        visits[0] = visits[found];
+        availability[0] = availability[found];
+        reward[0] = reward[found];
+        signature[0] = signature[found];
+        firstChild[0] = firstChild[found];
+        nextSibling[0] = NO_NODE;
+        parent[0] = NO_NODE;
+
+        for (int c = firstChild[0]; c != NO_NODE; c = nextSibling[c]) parent[c] = 0;
+    }
+
+    private boolean descends(int node, int ancestor) {
+        for (; node != NO_NODE; node = parent[node]) if (node == ancestor) return true;
+        return false;
+    }
+
+    private void iterate() {
+        determinize();
+
+        int node = 0;
+        boolean expanded = false;
+
+        while (!isTerminal() && !expanded) {
+            int count = node == 0 ? rootMoveCount : legalMoves(buffer);
+            int[] available = node == 0 ? rootMoves : buffer;
+
+            Arrays.fill(legal, 0);
+            for (int i = 0; i < count; i++) legal[(available[i] + 1) >>> 6] |= 1L << (available[i] + 1);
+
+            int best = NO_NODE;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (int c = firstChild[node]; c != NO_NODE; c = nextSibling[c]) {
+                int bit = move[c] + 1;
+                if ((legal[bit >>> 6] & (1L << bit)) == 0) continue;
+
+                legal[bit >>> 6] &= ~(1L << bit);
+                availability[c]++;
+
+                double value = reward[c] / visits[c] + exploration * Math.sqrt(Math.log(availability[c]) / visits[c]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+
+            int untried = 0;
+            for (long word : legal) untried += Long.bitCount(word);
+
+            if (untried > 0 && nodeCount < maxNodes) {
+                int code = nthMove(random.nextInt(untried));
+                int mover = current;
+
+                step(code);
+                node = newNode(node, code, mover, signature());
+                expanded = true;
+            }
+            else if (best != NO_NODE) {
+                step(move[best]);
+                node = best;
+            }
+            else break;
+        }
+
+        while (!isTerminal()) {
+            int count = legalMoves(buffer);
+            step(buffer[random.nextInt(count)]);
+        }
+
+        for (; node != NO_NODE; node = parent[node]) {
+            visits[node]++;
+            if (player[node] >= 0) reward[node] += (double) (seats - 1 - positions[player[node]]) / (seats - 1);
+        }
+    }
+
+    private int nthMove(int n) {
+        for (int w = 0; w < legal.length; w++) {
+            long word = legal[w];
+            int count = Long.bitCount(word);
+
+            if (n < count) {
+                for (; n > 0; n--) word &= word - 1;
+                return (w << 6) + Long.numberOfTrailingZeros(word) - 1;
+            }
+
+            n -= count;
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private void determinize() {
+        hands[0] = rootHand;
+        sampler.deal(unseen, rootCounts, hands, 1, seats);
+
+        active = rootActive;
+        in = 0;
+        for (int s = 0; s < seats; s++) if (hands[s] != 0) in |= 1 << s;
+        toBeat = rootToBeat;
+        current = 0;
+        finished = seats - Integer.bitCount(in);
+    }
+
+    private int legalMoves(int[] out) {
+        long hand = hands[current];
+
+        if (toBeat != LEAD) {
+            int n = moves.respond(hand, toBeat, out);
+            out[n++] = PASS;
+            return n;
+        }
+
+        int n = moves.generate(hand, out);
+        if ((hand & THREE_OF_CLUBS) == 0) return n;
+
+        int m = 0;
+        for (int i = 0; i < n; i++) if (Action.decodePlay(out[i]).rank == THREE) out[m++] = out[i];
+        return m;
+    }
+
+    private boolean isTerminal() {
+        return Integer.bitCount(in) <= 1;
+    }
+
+    private void step(int code) {
+        int bit = 1 << current;
+
+        if (code == PASS) active &= ~bit;
+        else {
+            hands[current] ^= Moves.select(hands[current], code);
+            toBeat = code;
+
+            if (hands[current] == 0) {
+                active &= ~bit;
+                in &= ~bit;
+                positions[current] = finished++;
+            }
+        }
+
+        if (isTerminal()) {
+            for (int s = 0; s < seats; s++) if ((in & (1 << s)) != 0) positions[s] = finished++;
+            return;
+        }
+
+        if (active == 0) {
+            active = in;
+            toBeat = LEAD;
+            if ((in & bit) == 0) current = next(in);
+        }
+        else current = next(active);
+    }
+
+    private int next(int mask) {
+        for (int i = 1; i <= seats; i++) {
+            int s = (current + i) % seats;
+            if ((mask & (1 << s)) != 0) return s;
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private long signature() {
+        long h = toBeat + 3;
+        for (int s = 0; s < seats; s++) h = h * 31 + Long.bitCount(hands[s]);
+        return (h * 31 + active) * 31 + current;
+    }
+
+    private long signature(int[] counts, int active, int toBeat, int current) {
+        long h = toBeat + 3;
+        for (int s = 0; s < seats; s++) h = h * 31 + counts[s];
+        return (h * 31 + active) * 31 + current;
+    }
+
+    private int newNode(int parentNode, int code, int mover, long state) {
+        if (nodeCount == move.length) grow();
+
+        int n = nodeCount++;
+        move[n] = code;
+        player[n] = mover;
+        parent[n] = parentNode;
+        firstChild[n] = NO_NODE;
+        visits[n] = 0;
+        availability[n] = 1;
+        reward[n] = 0;
+        signature[n] = state;
+
+        if (parentNode != NO_NODE) {
+            nextSibling[n] = firstChild[parentNode];
+            firstChild[parentNode] = n;
+        }
+        else nextSibling[n] = NO_NODE;
+
+        return n;
+    }
+
+    private void grow() {
+        int capacity = Math.min(move.length * 2, maxNodes);
+
+        move = Arrays.copyOf(move, capacity);
+        player = Arrays.copyOf(player, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        visits = Arrays.copyOf(visits, capacity);
+        availability = Arrays.copyOf(availability, capacity);
+        reward = Arrays.copyOf(reward, capacity);
+        signature = Arrays.copyOf(signature, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return "ISMCTS";
+    }
+}
@@ -0,0 +1,65 @@
+package dev.dejohn.killer.brains;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Moves;
+import dev.dejohn.killer.game.Tablebase;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TablebaseBrain implements Brain {
+    public static TablebaseBrain wrap(Brain brain, Tablebase tablebase) {
+        return new TablebaseBrain(brain, tablebase);
+    }
+
+    private final Brain brain;
+    private final Tablebase tablebase;
+
+    public TablebaseBrain(Brain brain, Tablebase tablebase) {
+        this.brain = brain;
+        this.tablebase = tablebase;
+    }
+
+    @Override
+    public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+        int code = lookup(context, Moves.LEAD);
+        if (code == Tablebase.MISSING) return brain.getAction(context, options);
+
+        List<? extends Action.Play<T>> plays = options.toList();
+        for (var play : plays) if (play.encode() == code) return play;
+        return brain.getAction(context, plays.stream());
+    }
+
+    @Override
+    public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+        int code = lookup(context, toBeat.encode());
+        if (code == Tablebase.MISSING) return brain.getAction(context, toBeat, options);
+        if (code == Action.PASS_CODE) return Action.pass();
+
+        List<? extends Action.Play<T>> plays = options.toList();
+        for (var play : plays) if (play.encode() == code) return play;
+        return brain.getAction(context, toBeat, plays.stream());
+    }
+
+    private int lookup(Context context, int toBeat) {
+        int opponent = -1;
+
+        for (int i = 0; i < context.opponentCount(); i++) {
+            if (context.cardCount(i) == 0) continue;
+            if (opponent >= 0) return Tablebase.MISSING;
+            opponent = i;
+        }
+
+        long other = context.unseenBits();
+        if (opponent < 0 || Long.bitCount(other) != context.cardCount(opponent)) return Tablebase.MISSING;
+
+        return tablebase.move(context.handBits(), other, toBeat, context.isActive(opponent));
+    }
+
+    @Override
+    public String toString() {
+        return brain + "+tablebase";
+    }
+}
@@ -0,0 +1,220 @@
+package dev.dejohn.killer.cards;
+
+import java.util.function.IntConsumer;
+
+import static dev.dejohn.killer.cards.Cards.NATURAL_COUNT;
+
+public final class CardBits {
+    public static final long EMPTY = 0L;
+    public static final long NATURALS = -1L >>> (Long.SIZE - NATURAL_COUNT);
+    public static final long WILDS = ~NATURALS;
+
+    static final long ALL_THREES_VECTOR = 15L;
+    static final long ALL_CLUBS_VECTOR = 300239975158033L;
+
+    // rank histograms pack the natural count of each rank into three bits, lowest rank first
+    private static final int RANK_COUNT = Rank.values().length;
+    private static final long NIBBLE_LOW_BITS = 0x7777777777777L;
+    private static final long LANE_ONES = 0x1249249249L;
+    private static final long LANE_HIGH_BITS = LANE_ONES << 2;
+
+    public static final class Cursor {
+        private long remaining;
+
+        public Cursor reset(long bitVector) {
+            remaining = bitVector;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        public int next() {
+            int index = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return index;
+        }
+
+        public long nextBit() {
+            long bit = remaining & -remaining;
+            remaining ^= bit;
+            return bit;
+        }
+    }
+
+    public static boolean contains(long bitVector, long cards) {
+        return (bitVector & cards) == cards;
+    }
+
+    public static boolean intersects(long bitVector, long cards) {
+        return (bitVector & cards) != 0;
+    }
+
+    public static long add(long bitVector, long cards) {
+        return bitVector | cards;
+    }
+
+    public static long remove(long bitVector, long cards) {
+        return bitVector & ~cards;
+    }
+
+    public static long intersection(long bitVector, long cards) {
+        return bitVector & cards;
+    }
+
+    public static int size(long bitVector) {
+        return Long.bitCount(bitVector);
+    }
+
+    public static long naturals(long bitVector) {
+        return bitVector & NATURALS;
+    }
+
+    public static long wilds(long bitVector) {
+        return bitVector & WILDS;
+    }
+
+    public static long filter(long bitVector, Rank rank) {
+        return bitVector & (ALL_THREES_VECTOR << rank.offset);
+    }
+
+    public static long filter(long bitVector, Suit suit) {
+        return bitVector & (ALL_CLUBS_VECTOR << suit.ordinal());
+    }
+
+    public static int count(long bitVector, Rank rank) {
+        return Long.bitCount(filter(bitVector, rank));
+    }
+
+    public static int count(long bitVector, Suit suit) {
+        return Long.bitCount(filter(bitVector, suit));
+    }
+
+    public static long histogram(long bitVector) {
+        long counts = bitVector & NATURALS;
+        counts -= counts >>> 1 & 0x5555555555555L;
+        counts = (counts & 0x3333333333333L) + (counts >>> 2 & 0x3333333333333L);
+        return Long.compress(counts, NIBBLE_LOW_BITS);
+    }
+
+    public static int count(long histogram, int rank) {
+        return (int) (histogram >>> (rank * 3)) & 7;
+    }
+
+    // a 13-bit mask of the ranks holding at least depth (1 to 4) cards
+    public static int ranksAtLeast(long histogram, int depth) {
+        return (int) Long.compress(histogram + (4 - depth) * LANE_ONES, LANE_HIGH_BITS);
+    }
+
+    // a 13-bit mask of the ranks starting a run of length ranks that each hold at least depth cards
+    public static int runStarts(long histogram, int depth, int length) {
+        int ranks = ranksAtLeast(histogram, depth), starts = ranks;
+        for (int i = 1; i < length && starts != 0; i++) starts &= ranks >>> i;
+        return starts;
+    }
+
+    // as above, with wildCount wilds filling whatever the run is missing
+    public static int runStarts(long histogram, int depth, int length, int wildCount) {
+        if (wildCount == 0) return runStarts(histogram, depth, length);
+
+        // the ranks holding at least 1 to 4 cards, depths beyond the run's counting as held everywhere
+        int all = (1 << RANK_COUNT) - 1;
+        int ranks1 = ranksAtLeast(histogram, 1);
+        int ranks2 = depth >= 2 ? ranksAtLeast(histogram, 2) : all;
+        int ranks3 = depth >= 3 ? ranksAtLeast(histogram, 3) : all;
+        int ranks4 = depth >= 4 ? ranksAtLeast(histogram, 4) : all;
+
+        int starts = 0;
+        for (int s = 0, window = (1 << length) - 1; s + length <= RANK_COUNT; s++, window <<= 1) {
+            int missing = Integer.bitCount(window & ~ranks1) + Integer.bitCount(window & ~ranks2)
+                + Integer.bitCount(window & ~ranks3) + Integer.bitCount(window & ~ranks4);
+            if (missing <= wildCount) starts |= 1 << s;
+        }
+
+        return starts;
+    }
+
+    public static long lowest(long bitVector) {
+        return bitVector & -bitVector;
+    }
+
+    public static long lowest(long bitVector, int n) {
+        long cards = 0;
+        for (; n > 0 && bitVector != 0; n--, bitVector &= bitVector - 1) cards |= bitVector & -bitVector;
+        return cards;
+    }
+
+    public static long select(long bitVector, int n) {
+        int shift = 0;
+
+        for (int count; n >= (count = Long.bitCount(bitVector & 0xFF)); bitVector >>>= 8, shift += 8) n -= count;
+        for (; n > 0; n--) bitVector &= bitVector - 1;
+
+        return (bitVector & -bitVector) << shift;
+    }
+
+    public static void forEach(long bitVector, IntConsumer action) {
+        for (; bitVector != 0; bitVector &= bitVector - 1) action.accept(Long.numberOfTrailingZeros(bitVector));
+    }
+
+    public static int indices(long bitVector, int[] buffer) {
+        int n = 0;
+        for (; bitVector != 0; bitVector &= bitVector - 1) buffer[n++] = Long.numberOfTrailingZeros(bitVector);
+        return n;
+    }
+
+    public static void add(long[] hands, int hand, long cards) {
+        hands[hand] |= cards;
+    }
+
+    public static void remove(long[] hands, int hand, long cards) {
+        hands[hand] &= ~cards;
+    }
+
+    public static void removeAll(long[] hands, long cards) {
+        for (int i = 0; i < hands.length; i++) hands[i] &= ~cards;
+    }
+
+    public static void retainAll(long[] hands, long cards) {
+        for (int i = 0; i < hands.length; i++) hands[i] &= cards;
+    }
+
+    public static long union(long[] hands) {
+        long cards = 0;
+        for (long hand : hands) cards |= hand;
+        return cards;
+    }
+
+    public static boolean isDisjoint(long[] hands) {
+        long seen = 0;
+
+        for (long hand : hands) {
+            if ((seen & hand) != 0) return false;
+            seen |= hand;
+        }
+
+        return true;
+    }
+
+    public static int holderOf(long[] hands, long card) {
+        for (int i = 0; i < hands.length; i++) if ((hands[i] & card) != 0) return i;
+        return -1;
+    }
+
+    public static void sizes(long[] hands, int[] out) {
+        for (int i = 0; i < hands.length; i++) out[i] = Long.bitCount(hands[i]);
+    }
+
+    public static void counts(long[] hands, Rank rank, int[] out) {
+        long mask = ALL_THREES_VECTOR << rank.offset;
+        for (int i = 0; i < hands.length; i++) out[i] = Long.bitCount(hands[i] & mask);
+    }
+
+    public static void counts(long[] hands, Suit suit, int[] out) {
+        long mask = ALL_CLUBS_VECTOR << suit.ordinal();
+        for (int i = 0; i < hands.length; i++) out[i] = Long.bitCount(hands[i] & mask);
+    }
+
+    private CardBits() {}
+}
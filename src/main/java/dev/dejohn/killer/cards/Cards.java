@@ -1,7 +1,7 @@
 package dev.dejohn.killer.cards;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
@@ -11,8 +11,6 @@ import static dev.dejohn.killer.cards.Suit.HEARTS;
 
 public abstract sealed class Cards<T extends Card> implements Iterable<T> permits Cards.Any, Cards.Naturals, Cards.Wilds {
     public static final int NATURAL_COUNT = Rank.values().length * Suit.values().length;
-    private static final long ALL_THREES_VECTOR = 15L;
-    private static final long ALL_CLUBS_VECTOR = 300239975158033L;
 
     private static final int SINGLE_DEPTH = 1;
     private static final int PAIR_DEPTH = 2;
@@ -231,19 +229,27 @@ public abstract sealed class Cards<T extends Card> implements Iterable<T> permit
     }
 
     public Cards<Card.Natural> filter(Rank rank) {
-        return Naturals.fromNatural(bitVector & (ALL_THREES_VECTOR << rank.offset));
+        return Naturals.fromNatural(CardBits.filter(bitVector, rank));
     }
 
     public Cards<Card.Natural> filter(Suit suit) {
-        return Naturals.fromNatural(bitVector & (ALL_CLUBS_VECTOR << suit.ordinal()));
+        return Naturals.fromNatural(CardBits.filter(bitVector, suit));
     }
 
     public int count(Rank rank) {
-        return Long.bitCount(bitVector & (ALL_THREES_VECTOR << rank.offset));
+        return CardBits.count(bitVector, rank);
     }
 
     public int count(Suit suit) {
-        return Long.bitCount(bitVector & (ALL_CLUBS_VECTOR << suit.ordinal()));
+        return CardBits.count(bitVector, suit);
+    }
+
+    public long histogram() {
+        return CardBits.histogram(bitVector);
+    }
+
+    public void forEachIndex(IntConsumer action) {
+        CardBits.forEach(bitVector, action);
     }
 
     public LongStream bitStream() {
@@ -258,7 +264,23 @@ public abstract sealed class Cards<T extends Card> implements Iterable<T> permit
 
     @Override
     public Iterator<T> iterator() {
-        return stream().iterator();
+        return new Iterator<>() {
+            private long remaining = bitVector;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public T next() {
+                if (remaining == 0) throw new NoSuchElementException();
+
+                int index = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return getCard(index);
+            }
+        };
     }
 
     @Override
@@ -273,6 +295,13 @@ public abstract sealed class Cards<T extends Card> implements Iterable<T> permit
 
     @Override
     public String toString() {
-        return stream().map(Card::toString).collect(Collectors.joining(" "));
+        var builder = new StringBuilder();
+
+        for (long b = bitVector; b != 0; b &= b - 1) {
+            if (!builder.isEmpty()) builder.append(' ');
+            builder.append(getCard(Long.numberOfTrailingZeros(b)));
+        }
+
+        return builder.toString();
     }
 }
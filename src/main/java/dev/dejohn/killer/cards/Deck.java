@@ -3,6 +3,8 @@ package dev.dejohn.killer.cards;
 import dev.dejohn.killer.cards.Card.*;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
 import java.util.stream.Collectors;
 
 public final class Deck {
@@ -18,13 +20,21 @@ public final class Deck {
     }
 
     public static Deck of(Cards<?> cards) {
-        return new Deck(cards, new Random());
+        return new Deck(cards, new SplittableRandom());
+    }
+
+    public static Deck of(Cards<?> cards, long seed) {
+        return new Deck(cards, new SplittableRandom(seed));
+    }
+
+    public static Deck of(Cards<?> cards, RandomGenerator random) {
+        return new Deck(cards, random);
     }
 
     public final Cards<?> cards;
-    private final Random random;
+    private final RandomGenerator random;
 
-    private Deck(Cards<?> cards, Random random) {
+    private Deck(Cards<?> cards, RandomGenerator random) {
         this.cards = cards;
         this.random = random;
     }
@@ -41,24 +51,58 @@ public final class Deck {
         return cards.wilds();
     }
 
+    public Deck withRandom(RandomGenerator random) {
+        return new Deck(cards, random);
+    }
+
+    public Deck seeded(long seed) {
+        return new Deck(cards, new SplittableRandom(seed));
+    }
+
+    // a seed for a deck of the same cards, drawn from this deck's generator
+    public long nextSeed() {
+        return random.nextLong();
+    }
+
+    public Deck fork() {
+        return new Deck(
+            cards,
+            random instanceof SplittableGenerator splittable ? splittable.split() : new SplittableRandom(random.nextLong())
+        );
+    }
+
+    public void shuffle(List<?> list) {
+        for (int i = list.size() - 1; i > 0; i--) Collections.swap(list, i, random.nextInt(i + 1));
+    }
+
     public List<Cards<?>> deal(int numberOfHands) {
-        long[] shuffled = new long[cards.size()];
         long[] hands = new long[numberOfHands];
-        long r = cards.bitVector, b;
-        int h = 0;
-
-        for (int i = 0; i < shuffled.length; i++) {
-            int n = random.nextInt(i + 1);
-            r ^= (b = r & -r);
-            shuffled[i] = shuffled[n];
-            shuffled[n] = b;
-        }
+        deal(hands);
+        return Arrays.stream(hands).mapToObj(Cards::from).collect(Collectors.toCollection(ArrayList::new));
+    }
 
-        for (long bitVector : shuffled) {
-            if (h == numberOfHands) h = 0;
-            hands[h++] |= bitVector;
-        }
+    public void deal(long[] hands) {
+        deal(hands, 0, hands.length);
+    }
 
-        return Arrays.stream(hands).mapToObj(Cards::from).collect(Collectors.toCollection(ArrayList::new));
+    public void deal(long[] hands, int offset, int numberOfHands) {
+        if (numberOfHands < 1 || offset < 0 || offset > hands.length - numberOfHands) throw new IllegalArgumentException();
+
+        long remaining = cards.bitVector;
+        int size = Long.bitCount(remaining);
+        int handSize = size / numberOfHands, extra = size % numberOfHands;
+
+        for (int h = 0; h < numberOfHands; h++) {
+            long hand = 0;
+
+            for (int i = (h < extra) ? handSize + 1 : handSize; i > 0; i--) {
+                long b = CardBits.select(remaining, random.nextInt(size--));
+                remaining ^= b;
+                hand |= b;
+            }
+
+            hands[offset + h] = hand;
+        }
     }
+
 }
@@ -0,0 +1,38 @@
+package dev.dejohn.killer.cards;
+
+// bulk queries over the naturals of many hands at once; every kernel writes out[i] for hands[i]. the vector
+// implementation needs the jdk.incubator.vector module at run time (--add-modules jdk.incubator.vector) and gives the
+// same results as the scalar one
+public interface HandKernels {
+    long QUAD = 1;
+    long PAIRS = 2;
+
+    static HandKernels scalar() {
+        return ScalarHandKernels.INSTANCE;
+    }
+
+    static HandKernels vector() {
+        if (!isVectorAvailable()) throw new UnsupportedOperationException("jdk.incubator.vector is not available");
+        return VectorHandKernels.INSTANCE;
+    }
+
+    static HandKernels best() {
+        return isVectorAvailable() ? VectorHandKernels.INSTANCE : ScalarHandKernels.INSTANCE;
+    }
+
+    static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    // rank histograms as CardBits.histogram
+    void histograms(long[] hands, long[] out);
+
+    // eight bits per suit, in Suit order
+    void suitCounts(long[] hands, long[] out);
+
+    // QUAD when any rank is complete, PAIRS when three consecutive ranks hold a pair each
+    void bombs(long[] hands, long[] out);
+
+    // eight bits per depth from single to triple: the most consecutive ranks holding at least that many cards
+    void longestRuns(long[] hands, long[] out);
+}
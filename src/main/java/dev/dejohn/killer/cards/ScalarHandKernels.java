@@ -0,0 +1,74 @@
+package dev.dejohn.killer.cards;
+
+final class ScalarHandKernels implements HandKernels {
+    static final HandKernels INSTANCE = new ScalarHandKernels();
+
+    static final long NIBBLE_ONES = 0x1111111111111L;
+    static final long NIBBLE_HIGH_BITS = NIBBLE_ONES << 3;
+    static final int SUIT_BITS = 8;
+    static final int RUN_BITS = 8;
+    static final int MAX_RUN_DEPTH = 3;
+    static final int RANK_COUNT = Rank.values().length;
+
+    static long nibbleCounts(long hand) {
+        long counts = hand & CardBits.NATURALS;
+        counts -= counts >>> 1 & 0x5555555555555L;
+        return (counts & 0x3333333333333L) + (counts >>> 2 & 0x3333333333333L);
+    }
+
+    // the high bit of every rank nibble holding at least depth cards
+    static long atLeast(long counts, int depth) {
+        return (counts + (8 - depth) * NIBBLE_ONES) & NIBBLE_HIGH_BITS;
+    }
+
+    static long suitCounts(long hand) {
+        long counts = 0;
+        for (int s = 0; s < Suit.values().length; s++) counts |= (long) Long.bitCount(hand & CardBits.ALL_CLUBS_VECTOR << s) << (s * SUIT_BITS);
+        return counts;
+    }
+
+    static long bombs(long hand) {
+        long pairs = atLeast(nibbleCounts(hand), 2);
+        long quads = hand & hand >>> 1 & hand >>> 2 & hand >>> 3 & NIBBLE_ONES;
+        return (quads != 0 ? QUAD : 0) | ((pairs & pairs >>> 4 & pairs >>> 8) != 0 ? PAIRS : 0);
+    }
+
+    static long longestRuns(long hand) {
+        long counts = nibbleCounts(hand), runs = 0;
+
+        for (int d = 1; d <= MAX_RUN_DEPTH; d++) {
+            long ones = atLeast(counts, d), twos = ones & ones >>> 4, fours = twos & twos >>> 8, eights = fours & fours >>> 16;
+            long starts = NIBBLE_HIGH_BITS, length = 0;
+
+            // binary search on the length: starts holds the ranks beginning a run of the length found so far
+            if ((eights & starts) != 0) { starts &= eights; length = 8; }
+            if ((fours >>> (length << 2) & starts) != 0) { starts &= fours >>> (length << 2); length += 4; }
+            if ((twos >>> (length << 2) & starts) != 0) { starts &= twos >>> (length << 2); length += 2; }
+            if ((ones >>> (length << 2) & starts) != 0) length++;
+
+            runs |= length << ((d - 1) * RUN_BITS);
+        }
+
+        return runs;
+    }
+
+    @Override
+    public void histograms(long[] hands, long[] out) {
+        for (int i = 0; i < hands.length; i++) out[i] = CardBits.histogram(hands[i]);
+    }
+
+    @Override
+    public void suitCounts(long[] hands, long[] out) {
+        for (int i = 0; i < hands.length; i++) out[i] = suitCounts(hands[i]);
+    }
+
+    @Override
+    public void bombs(long[] hands, long[] out) {
+        for (int i = 0; i < hands.length; i++) out[i] = bombs(hands[i]);
+    }
+
+    @Override
+    public void longestRuns(long[] hands, long[] out) {
+        for (int i = 0; i < hands.length; i++) out[i] = longestRuns(hands[i]);
+    }
+}
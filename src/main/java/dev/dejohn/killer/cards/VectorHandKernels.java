@@ -0,0 +1,109 @@
+package dev.dejohn.killer.cards;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import static dev.dejohn.killer.cards.ScalarHandKernels.*;
+import static jdk.incubator.vector.VectorOperators.*;
+
+final class VectorHandKernels implements HandKernels {
+    static final HandKernels INSTANCE = new VectorHandKernels();
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private static LongVector nibbleCounts(LongVector hands) {
+        var counts = hands.and(CardBits.NATURALS);
+        counts = counts.sub(counts.lanewise(LSHR, 1).and(0x5555555555555L));
+        return counts.and(0x3333333333333L).add(counts.lanewise(LSHR, 2).and(0x3333333333333L));
+    }
+
+    private static LongVector atLeast(LongVector counts, int depth) {
+        return counts.add((8 - depth) * NIBBLE_ONES).and(NIBBLE_HIGH_BITS);
+    }
+
+    // the last partial vector is left to the scalar kernels, which give identical results
+    private static int bound(long[] hands) {
+        return SPECIES.loopBound(hands.length);
+    }
+
+    @Override
+    public void histograms(long[] hands, long[] out) {
+        int i = 0;
+        for (; i < bound(hands); i += SPECIES.length()) {
+            var counts = nibbleCounts(LongVector.fromArray(SPECIES, hands, i));
+            var histograms = counts.and(7);
+            for (int r = 1; r < RANK_COUNT; r++) histograms = histograms.or(counts.lanewise(LSHR, r).and(7L << (r * 3)));
+            histograms.intoArray(out, i);
+        }
+        for (; i < hands.length; i++) out[i] = CardBits.histogram(hands[i]);
+    }
+
+    @Override
+    public void suitCounts(long[] hands, long[] out) {
+        int i = 0;
+        for (; i < bound(hands); i += SPECIES.length()) {
+            var v = LongVector.fromArray(SPECIES, hands, i);
+            var counts = LongVector.zero(SPECIES);
+
+            for (int s = 0; s < Suit.values().length; s++) {
+                counts = counts.or(v.and(CardBits.ALL_CLUBS_VECTOR << s).lanewise(BIT_COUNT).lanewise(LSHL, s * SUIT_BITS));
+            }
+
+            counts.intoArray(out, i);
+        }
+        for (; i < hands.length; i++) out[i] = ScalarHandKernels.suitCounts(hands[i]);
+    }
+
+    @Override
+    public void bombs(long[] hands, long[] out) {
+        int i = 0;
+        for (; i < bound(hands); i += SPECIES.length()) {
+            var v = LongVector.fromArray(SPECIES, hands, i);
+            var pairs = atLeast(nibbleCounts(v), 2);
+            var quads = v.and(v.lanewise(LSHR, 1)).and(v.lanewise(LSHR, 2)).and(v.lanewise(LSHR, 3)).and(NIBBLE_ONES);
+            var runs = pairs.and(pairs.lanewise(LSHR, 4)).and(pairs.lanewise(LSHR, 8));
+
+            LongVector.zero(SPECIES)
+                .blend(QUAD, quads.compare(NE, 0))
+                .or(LongVector.zero(SPECIES).blend(PAIRS, runs.compare(NE, 0)))
+                .intoArray(out, i);
+        }
+        for (; i < hands.length; i++) out[i] = ScalarHandKernels.bombs(hands[i]);
+    }
+
+    @Override
+    public void longestRuns(long[] hands, long[] out) {
+        int i = 0;
+
+        for (; i < bound(hands); i += SPECIES.length()) {
+            var counts = nibbleCounts(LongVector.fromArray(SPECIES, hands, i));
+            var runs = LongVector.zero(SPECIES);
+
+            for (int d = 1; d <= MAX_RUN_DEPTH; d++) {
+                var ones = atLeast(counts, d);
+                var twos = ones.and(ones.lanewise(LSHR, 4));
+                var fours = twos.and(twos.lanewise(LSHR, 8));
+                var eights = fours.and(fours.lanewise(LSHR, 16));
+                var starts = LongVector.broadcast(SPECIES, NIBBLE_HIGH_BITS);
+                var length = LongVector.zero(SPECIES);
+
+                var found = eights.and(starts);
+                var hit = found.compare(NE, 0);
+                starts = starts.blend(found, hit);
+                length = length.blend(8, hit);
+
+                for (int step = 4; step > 0; step >>= 1) {
+                    found = (step == 1 ? ones : step == 2 ? twos : fours).lanewise(LSHR, length.lanewise(LSHL, 2)).and(starts);
+                    hit = found.compare(NE, 0);
+                    starts = starts.blend(found, hit);
+                    length = length.add(step, hit);
+                }
+
+                runs = runs.or(length.lanewise(LSHL, (d - 1) * RUN_BITS));
+            }
+
+            runs.intoArray(out, i);
+        }
+        for (; i < hands.length; i++) out[i] = ScalarHandKernels.longestRuns(hands[i]);
+    }
+}
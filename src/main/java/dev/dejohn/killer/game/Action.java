@@ -1,14 +1,15 @@
 package dev.dejohn.killer.game;
 
 import dev.dejohn.killer.cards.Card;
+import dev.dejohn.killer.cards.CardBits;
 import dev.dejohn.killer.cards.Card.Natural;
 import dev.dejohn.killer.cards.Cards;
 import dev.dejohn.killer.cards.Rank;
 import dev.dejohn.killer.cards.Suit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -17,31 +18,140 @@ import static dev.dejohn.killer.cards.Rank.TWO;
 import static dev.dejohn.killer.cards.Suit.*;
 
 public sealed abstract class Action<T> {
+    public static final int PASS_CODE = -1;
+    public static final int PLAY_COUNT;
+
+    static final int WORDS;
+    // the codes that beat each play, WORDS words per code
+    static final long[] BEATERS;
+
+    private static final Pass<?> PASS = new Pass<>();
+    private static final int[][][] CODES = new int[Depth.values().length][Length.values().length][Rank.values().length];
+    private static final Play<?>[] PLAYS;
+    private static final int TWO_OF_HEARTS_CODE;
+    private static final Rank[] RANKS = Rank.values();
+    private static final int ALL_RANKS = (1 << RANKS.length) - 1;
+
+    static {
+        var plays = new ArrayList<Play<?>>();
+
+        for (var depth : Depth.values()) {
+            for (var length : Length.values()) {
+                for (var rank : Rank.values()) {
+                    CODES[depth.ordinal()][length.ordinal()][rank.ordinal()] = -1;
+                    if (depth == Depth.QUAD && length != Length.ONE) continue;
+                    if (rank.ordinal() + length.asInt > Rank.values().length) continue;
+
+                    CODES[depth.ordinal()][length.ordinal()][rank.ordinal()] = plays.size();
+                    plays.add(create(rank, depth, length));
+                    if (depth == Depth.SINGLE && length == Length.ONE && rank == TWO) plays.add(new TwoOfHearts<>());
+                }
+            }
+        }
+
+        PLAYS = plays.toArray(Play<?>[]::new);
+        PLAY_COUNT = PLAYS.length;
+        TWO_OF_HEARTS_CODE = CODES[Depth.SINGLE.ordinal()][Length.ONE.ordinal()][TWO.ordinal()] + 1;
+
+        WORDS = (PLAY_COUNT + Long.SIZE - 1) / Long.SIZE;
+        BEATERS = new long[PLAY_COUNT * WORDS];
+        for (int t = 0; t < PLAY_COUNT; t++) {
+            for (int p = 0; p < PLAY_COUNT; p++) {
+                if (outranks(PLAYS[p], PLAYS[t])) BEATERS[t * WORDS + (p >>> 6)] |= 1L << p;
+            }
+        }
+    }
+
+    static boolean beats(int play, int toBeat) {
+        return (BEATERS[toBeat * WORDS + (play >>> 6)] >>> play & 1) != 0;
+    }
+
+    // a bomb beats anything but a stronger bomb: deeper, then longer, then of a higher rank. otherwise a play only
+    // beats the same kind of play of no lower rank, except that the two of hearts beats any single and only a bomb
+    // beats it
+    private static boolean outranks(Play<?> play, Play<?> toBeat) {
+        boolean isAtLeast = play.rank.compareTo(toBeat.rank) >= 0;
+
+        if (toBeat instanceof Bomb) {
+            if (!(play instanceof Bomb)) return false;
+            if (play.depth != toBeat.depth) return play.depth.compareTo(toBeat.depth) > 0;
+            if (play.length != toBeat.length) return play.length.compareTo(toBeat.length) > 0;
+            return isAtLeast;
+        }
+
+        if (play instanceof Bomb) return true;
+        if (toBeat instanceof TwoOfHearts) return false;
+        if (play instanceof TwoOfHearts) return toBeat instanceof Single;
+        return play.depth == toBeat.depth && play.length == toBeat.length && isAtLeast;
+    }
+
+    @SuppressWarnings("unchecked")
     public static <T> Pass<T> pass() {
-        return new Pass<>();
+        return (Pass<T>) PASS;
+    }
+
+    public static int code(Rank rank, Depth depth, Length length) {
+        int code = CODES[depth.ordinal()][length.ordinal()][rank.ordinal()];
+        if (code < 0) throw new IllegalArgumentException();
+        return code;
+    }
+
+    public static int twoOfHeartsCode() {
+        return TWO_OF_HEARTS_CODE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Action<Object> decode(int code) {
+        return code == PASS_CODE ? pass() : (Play<Object>) PLAYS[code];
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Play<Object> decodePlay(int code) {
+        return (Play<Object>) PLAYS[code];
     }
 
     public static Stream<Play<Object>> stream(Cards<?> cards) {
-        return cards.wilds().stream().findFirst().map(
-            w -> Rank.stream().flatMap(
-                r -> {
-                    long b = ~((cards.bitVector >>> r.offset) & 15);
-                    if (b == 0) return Stream.empty();
-                    return stream(cards.remove(w).add((b & -b) << r.offset));
-                }
-            )
-        ).orElseGet(
-            () -> Stream.iterate(new StreamableRank(cards.naturals()), Objects::nonNull, StreamableRank::next)
+        if (cards.wilds().isEmpty()) {
+            return Stream.iterate(new StreamableRank(cards.naturals()), Objects::nonNull, StreamableRank::next)
                 .flatMap(StreamableRank::stream)
-        ).distinct();
+                .distinct();
+        }
+
+        int[] codes = new int[PLAY_COUNT];
+        int count = new Moves().generate(cards, codes);
+        return Arrays.stream(codes, 0, count).mapToObj(Action::decodePlay);
     }
 
+    @SuppressWarnings("unchecked")
     public static Single<Object> single(Natural card) {
-        if (card == TWO.of(HEARTS)) return new TwoOfHearts<>();
-        return new Single<>(card.rank);
+        return (Single<Object>) PLAYS[card == TWO.of(HEARTS) ? TWO_OF_HEARTS_CODE : code(card.rank, Depth.SINGLE, Length.ONE)];
     }
 
     public static Play<Object> of(Rank rank, Depth depth, Length length) {
+        return decodePlay(code(rank, depth, length));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Single<Object> single(Rank rank) {
+        return (Single<Object>) of(rank, Depth.SINGLE, Length.ONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Pair<Object> pair(Rank rank) {
+        return (Pair<Object>) of(rank, Depth.PAIR, Length.ONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Triple<Object> triple(Rank rank) {
+        return (Triple<Object>) of(rank, Depth.TRIPLE, Length.ONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Bomb.Quad<Object> quad(Rank rank) {
+        return (Bomb.Quad<Object>) of(rank, Depth.QUAD, Length.ONE);
+    }
+
+    private static Play<Object> create(Rank rank, Depth depth, Length length) {
         return switch (depth) {
             case Depth.SINGLE -> length == Length.ONE ? new Single<>(rank) : new Run<>(rank, length);
             case Depth.PAIR -> length == Length.ONE ? new Pair<>(rank) : new Bomb.Pairs<>(rank, length);
@@ -61,36 +171,24 @@ public sealed abstract class Action<T> {
     }
 
     public static Stream<Pair<Object>> pairs(Cards<?> cards) {
-        var wilds = cards.wilds();
-
-        return switch (wilds.size()) {
-            case 0 -> Rank.stream().filter(r -> cards.count(r) >= 2).map(Pair::new);
-            case 1 -> cards.naturals().stream().map(Natural::getRank).distinct().map(Pair::new);
-            default -> CLUBS.all().stream().map(Natural::getRank).map(Pair::new);
-        };
+        return ranks(tuples(cards, Depth.PAIR)).map(Action::pair);
     }
 
     public static Stream<Triple<Object>> triples(Cards<?> cards) {
-        var wilds = cards.wilds();
-
-        return switch (wilds.size()) {
-            case 0 -> Rank.stream().filter(r -> cards.count(r) >= 3).map(Triple::new);
-            case 1 -> Rank.stream().filter(r -> cards.count(r) >= 2).map(Triple::new);
-            case 2 -> cards.naturals().stream().map(Natural::getRank).distinct().map(Triple::new);
-            default -> CLUBS.all().stream().map(Natural::getRank).map(Triple::new);
-        };
+        return ranks(tuples(cards, Depth.TRIPLE)).map(Action::triple);
     }
 
     public static Stream<Bomb.Quad<Object>> quads(Cards<?> cards) {
-        var wilds = cards.wilds();
-
-        return switch (wilds.size()) {
-            case 0 -> Rank.stream().filter(r -> cards.count(r) == 4).map(Bomb.Quad::new);
-            case 1 -> Rank.stream().filter(r -> cards.count(r) >= 3).map(Bomb.Quad::new);
-            case 2 -> Rank.stream().filter(r -> cards.count(r) >= 2).map(Bomb.Quad::new);
-            case 3 -> cards.naturals().stream().map(Natural::getRank).distinct().map(Bomb.Quad::new);
-            default -> CLUBS.all().stream().map(Natural::getRank).map(Bomb.Quad::new);
-        };
+        return ranks(tuples(cards, Depth.QUAD)).map(Action::quad);
+    }
+
+    private static int tuples(Cards<?> cards, Depth depth) {
+        int missing = depth.asInt - cards.wilds().size();
+        return missing > 0 ? CardBits.ranksAtLeast(cards.histogram(), missing) : ALL_RANKS;
+    }
+
+    private static Stream<Rank> ranks(int mask) {
+        return IntStream.range(0, RANKS.length).filter(r -> (mask >>> r & 1) != 0).mapToObj(r -> RANKS[r]);
     }
 
     public static Stream<Run<Object>> runs(Cards<?> cards, Length length) {
@@ -112,23 +210,7 @@ public sealed abstract class Action<T> {
     private static Stream<Play<Object>> anyRun(Cards<?> cards, Depth depth, Length length) {
         if (length == Length.ONE || depth == Depth.QUAD) return Stream.empty();
 
-        return Rank.stream().filter(
-            rank -> {
-                if (rank.ordinal() + length.asInt > Rank.values().length) return false;
-                int wildCount = cards.wilds().size();
-
-                for (int i = 0; i < length.asInt; i++) {
-                    int missingCount = depth.asInt - cards.count(Rank.values()[rank.ordinal() + i]);
-
-                    if (missingCount > 0) {
-                        wildCount -= missingCount;
-                        if (wildCount < 0) return false;
-                    }
-                }
-
-                return true;
-            }
-        ).map(r -> of(r, depth, length));
+        return ranks(CardBits.runStarts(cards.histogram(), depth.asInt, length.asInt, cards.wilds().size())).map(r -> of(r, depth, length));
     }
 
     private static Stream<Play<Object>> anyRun(Cards<?> cards, Depth depth) {
@@ -206,17 +288,17 @@ public sealed abstract class Action<T> {
 
         private Stream<Play<Object>> nonRuns(Depth depth) {
             return switch (depth) {
-                case Depth.PAIR -> Stream.of(new Pair<>(rank));
-                case Depth.TRIPLE -> Stream.of(new Triple<>(rank));
-                case Depth.QUAD -> Stream.of(new Bomb.Quad<>(rank));
+                case Depth.PAIR -> Stream.of(pair(rank));
+                case Depth.TRIPLE -> Stream.of(triple(rank));
+                case Depth.QUAD -> Stream.of(quad(rank));
                 case Depth.SINGLE -> {
                     if (rank == Rank.TWO && (bitVector & (1 << HEARTS.ordinal())) != 0) {
                         yield depthCount == 1
-                            ? Stream.of(new TwoOfHearts<>())
-                            : Stream.of(new Single<>(rank), new TwoOfHearts<>());
+                            ? Stream.of(decodePlay(TWO_OF_HEARTS_CODE))
+                            : Stream.of(single(rank), decodePlay(TWO_OF_HEARTS_CODE));
                     }
 
-                    yield Stream.of(new Single<>(rank));
+                    yield Stream.of(single(rank));
                 }
             };
         }
@@ -229,7 +311,16 @@ public sealed abstract class Action<T> {
         }
     }
 
+    public abstract int encode();
+
     public static final class Pass<T> extends Action<T> {
+        private Pass() {}
+
+        @Override
+        public int encode() {
+            return PASS_CODE;
+        }
+
         @Override
         public String toString() {
             return "PASS";
@@ -247,7 +338,10 @@ public sealed abstract class Action<T> {
             this.length = length;
         }
 
-        abstract public boolean yieldsTo(Play<?> play);
+        public final boolean yieldsTo(Play<?> play) {
+            return beats(play.encode(), encode());
+        }
+
         abstract public Stream<? extends Play<Object>> playable(Cards<?> cards);
 
         public Cards<?> select(Cards<?> hand) {
@@ -273,6 +367,11 @@ public sealed abstract class Action<T> {
             return depth.asInt * length.asInt;
         }
 
+        @Override
+        public int encode() {
+            return code(rank, depth, length);
+        }
+
         @Override
         public boolean equals(Object o) {
             return o instanceof Play<?> p
@@ -283,7 +382,7 @@ public sealed abstract class Action<T> {
 
         @Override
         public int hashCode() {
-            return rank.ordinal() + (depth.ordinal() << 4) + (length.ordinal() << 6);
+            return encode();
         }
     }
 
@@ -297,16 +396,6 @@ public sealed abstract class Action<T> {
             return o instanceof Single<?> s && rank == s.rank;
         }
 
-        @Override
-        public boolean yieldsTo(Play<?> play) {
-            return switch (play) {
-                case TwoOfHearts<?> ignore -> true;
-                case Bomb<?> ignore -> true;
-                case Single<?> s -> rank.compareTo(s.rank) < 1;
-                default -> false;
-            };
-        }
-
         @Override
         public Stream<? extends Play<Object>> playable(Cards<?> cards) {
             return Stream.concat(singles(cards).filter(this::yieldsTo), bombs(cards));
@@ -338,13 +427,8 @@ public sealed abstract class Action<T> {
         }
 
         @Override
-        public int hashCode() {
-            return super.hashCode() + 1;
-        }
-
-        @Override
-        public boolean yieldsTo(Play<?> play) {
-            return play instanceof Bomb;
+        public int encode() {
+            return TWO_OF_HEARTS_CODE;
         }
 
         @Override
@@ -373,11 +457,6 @@ public sealed abstract class Action<T> {
             return o instanceof Pair<?> p && rank == p.rank;
         }
 
-        @Override
-        public boolean yieldsTo(Play<?> play) {
-            return play instanceof Bomb || (play instanceof Pair<?> p && rank.compareTo(p.rank) < 1);
-        }
-
         @Override
         public Stream<? extends Play<Object>> playable(Cards<?> cards) {
             return Stream.concat(pairs(cards).filter(this::yieldsTo), bombs(cards));
@@ -399,11 +478,6 @@ public sealed abstract class Action<T> {
             return o instanceof Triple<?> t && rank == t.rank;
         }
 
-        @Override
-        public boolean yieldsTo(Play<?> play) {
-            return play instanceof Bomb || (play instanceof Triple<?> t && rank.compareTo(t.rank) < 1);
-        }
-
         @Override
         public Stream<? extends Play<Object>> playable(Cards<?> cards) {
             return Stream.concat(triples(cards).filter(this::yieldsTo), bombs(cards));
@@ -425,12 +499,6 @@ public sealed abstract class Action<T> {
             return "RUN of " + length.name() + " (" + rank.symbol + ")";
         }
 
-        @Override
-        public boolean yieldsTo(Play<?> play) {
-            return play instanceof Bomb
-                || (play instanceof Run<?> r && length == r.length && rank.compareTo(r.rank) < 1);
-        }
-
         @Override
         public Stream<? extends Play<Object>> playable(Cards<?> cards) {
             return Stream.concat(runs(cards, length).filter(this::yieldsTo), bombs(cards));
@@ -453,16 +521,6 @@ public sealed abstract class Action<T> {
                 return length == r.length ? rank.compareTo(r.rank) : length.compareTo(r.length);
             }
 
-            @Override
-            public boolean yieldsTo(Play<?> play) {
-                return switch (play) {
-                    case Pairs<?> r -> compareTo(r) < 1;
-                    case Triples<?> ignore -> true;
-                    case Quad<?> ignore -> true;
-                    default -> false;
-                };
-            }
-
             @Override
             public Stream<? extends Play<Object>> playable(Cards<?> cards) {
                 return bombs(cards).filter(this::yieldsTo);
@@ -484,15 +542,6 @@ public sealed abstract class Action<T> {
                 return length == r.length ? rank.compareTo(r.rank) : length.compareTo(r.length);
             }
 
-            @Override
-            public boolean yieldsTo(Play<?> play) {
-                return switch (play) {
-                    case Triples<?> r -> compareTo(r) < 1;
-                    case Quad<?> ignore -> true;
-                    default -> false;
-                };
-            }
-
             @Override
             public Stream<? extends Play<Object>> playable(Cards<?> cards) {
                 return Stream.concat(runsOfTriples(cards), quads(cards)).filter(this::yieldsTo);
@@ -514,11 +563,6 @@ public sealed abstract class Action<T> {
                 return rank.compareTo(q.rank);
             }
 
-            @Override
-            public boolean yieldsTo(Play<?> play) {
-                return play instanceof Quad<?> q && compareTo(q) < 1;
-            }
-
             @Override
             public Stream<? extends Play<Object>> playable(Cards<?> cards) {
                 return quads(cards).filter(this::yieldsTo);
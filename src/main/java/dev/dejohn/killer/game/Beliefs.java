@@ -0,0 +1,194 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+
+import java.util.Arrays;
+
+import static dev.dejohn.killer.cards.Rank.TWO;
+import static dev.dejohn.killer.cards.Suit.HEARTS;
+
+// what one player can infer about where the unseen cards are. every opponent keeps a weight per card index, scaled
+// down whenever it passes on a play those cards could have beaten; probabilities are the weights rescaled until each
+// opponent holds its card count and each unseen card sums to one. opponents are indexed as in Context
+public final class Beliefs implements GameListener {
+    private static final int CARDS = Long.SIZE;
+    private static final int ITERATIONS = 4;
+    private static final long TWO_OF_HEARTS_VECTOR = TWO.of(HEARTS).getBitVector();
+    private static final double[] PASS_FACTORS = {0.4, 0.7, 0.85, 0.9};
+    private static final double RUN_PASS_FACTOR = 0.9;
+
+    // the natural cards of every same-shaped play that beats a code; bombs are left out, holding one is too rare to
+    // read anything into a pass
+    private static final long[] BEATERS = new long[Action.PLAY_COUNT];
+
+    static {
+        for (int t = 0; t < Action.PLAY_COUNT; t++) {
+            var toBeat = Action.decodePlay(t);
+
+            for (int p = 0; p < Action.PLAY_COUNT; p++) {
+                var play = Action.decodePlay(p);
+                if (play.depth != toBeat.depth || play.length != toBeat.length || !Moves.beats(p, t)) continue;
+
+                BEATERS[t] |= play instanceof Action.TwoOfHearts
+                    ? TWO_OF_HEARTS_VECTOR
+                    : ((1L << (play.length.asInt << 2)) - 1) << (play.rank.ordinal() << 2);
+            }
+        }
+    }
+
+    public static Beliefs attach(Game game, Brain brain) {
+        var beliefs = new Beliefs(game.idOf(brain));
+        game.addListener(beliefs);
+        return beliefs;
+    }
+
+    private final int player;
+    private int seat = -1;
+    private int seats = 0;
+    double[] weights = new double[0];
+    private double[] probabilities = new double[0];
+    int[] counts = new int[0];
+    private long unseen;
+    private long pile;
+    private int actor = -1;
+    private int toBeat = Moves.LEAD;
+    private boolean isDirty;
+
+    public Beliefs(int player) {
+        this.player = player;
+    }
+
+    public int opponentCount() {
+        return Math.max(seats - 1, 0);
+    }
+
+    public long unseenBits() {
+        return unseen;
+    }
+
+    public int cardCount(int opponent) {
+        return counts[opponent];
+    }
+
+    public double probability(int opponent, int card) {
+        normalize();
+        return probabilities[opponent * CARDS + card];
+    }
+
+    public void probabilities(int opponent, double[] into) {
+        normalize();
+        System.arraycopy(probabilities, opponent * CARDS, into, 0, CARDS);
+    }
+
+    // relative likelihood of each card given the passes seen so far, 1 until evidence says otherwise and 0 for cards
+    // that are not unseen
+    public double weight(int opponent, int card) {
+        return weights[opponent * CARDS + card];
+    }
+
+    // expected number of these cards the opponent holds
+    public double expected(int opponent, long cards) {
+        normalize();
+
+        double sum = 0;
+        for (long c = cards & unseen; c != 0; c &= c - 1) sum += probabilities[opponent * CARDS + Long.numberOfTrailingZeros(c)];
+        return sum;
+    }
+
+    @Override
+    public void onDeal(int[] players, long[] hands, int seats, long seed) {
+        this.seats = seats;
+        this.seat = -1;
+        for (int s = 0; s < seats; s++) if (players[s] == player) seat = s;
+        if (seat < 0) return;
+
+        int n = seats - 1;
+        if (counts.length != n) {
+            weights = new double[n * CARDS];
+            probabilities = new double[n * CARDS];
+            counts = new int[n];
+        }
+
+        unseen = 0;
+        for (int s = 0; s < seats; s++) if (s != seat) unseen |= hands[s];
+
+        Arrays.fill(weights, 0);
+        for (int o = 0; o < n; o++) {
+            counts[o] = Long.bitCount(hands[(seat + 1 + o) % seats]);
+            for (long c = unseen; c != 0; c &= c - 1) weights[o * CARDS + Long.numberOfTrailingZeros(c)] = 1;
+        }
+
+        pile = 0;
+        actor = -1;
+        isDirty = true;
+    }
+
+    @Override
+    public void onTurn(int seat, Context context, int toBeat, long[] options) {
+        if (this.seat < 0) return;
+
+        // the pile is public, so whatever joined it since the last turn was played by the last player to act
+        long played = context.pileBits() & ~pile;
+        pile = context.pileBits();
+
+        if (played != 0 && actor >= 0) {
+            int o = opponent(actor);
+            if (o >= 0) counts[o] -= Long.bitCount(played);
+
+            unseen &= ~played;
+            for (long c = played; c != 0; c &= c - 1) {
+                int card = Long.numberOfTrailingZeros(c);
+                for (int i = 0; i < counts.length; i++) weights[i * CARDS + card] = 0;
+            }
+
+            isDirty = true;
+        }
+
+        this.toBeat = toBeat;
+    }
+
+    @Override
+    public void onDecision(int seat, Brain brain, int options, int code, long nanos) {
+        if (this.seat < 0) return;
+        actor = seat;
+
+        int o = opponent(seat);
+        if (o < 0 || code != Action.PASS_CODE || toBeat < 0) return;
+
+        var play = Action.decodePlay(toBeat);
+        double factor = play.length.asInt > 1 ? RUN_PASS_FACTOR : PASS_FACTORS[play.depth.asInt - 1];
+
+        for (long c = BEATERS[toBeat] & unseen; c != 0; c &= c - 1) weights[o * CARDS + Long.numberOfTrailingZeros(c)] *= factor;
+        isDirty = true;
+    }
+
+    private int opponent(int seat) {
+        return seat == this.seat ? -1 : (seat - this.seat - 1 + seats) % seats;
+    }
+
+    // iterative proportional fitting, a fixed number of sweeps over the unseen cards
+    private void normalize() {
+        if (!isDirty) return;
+        isDirty = false;
+
+        int n = counts.length;
+        System.arraycopy(weights, 0, probabilities, 0, n * CARDS);
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (long c = unseen; c != 0; c &= c - 1) {
+                int card = Long.numberOfTrailingZeros(c);
+                double sum = 0;
+                for (int o = 0; o < n; o++) sum += probabilities[o * CARDS + card];
+                if (sum > 0) for (int o = 0; o < n; o++) probabilities[o * CARDS + card] /= sum;
+            }
+
+            for (int o = 0; o < n; o++) {
+                double sum = 0;
+                for (long c = unseen; c != 0; c &= c - 1) sum += probabilities[o * CARDS + Long.numberOfTrailingZeros(c)];
+
+                double scale = sum > 0 ? counts[o] / sum : 0;
+                for (long c = unseen; c != 0; c &= c - 1) probabilities[o * CARDS + Long.numberOfTrailingZeros(c)] *= scale;
+            }
+        }
+    }
+}
@@ -1,11 +1,89 @@
 package dev.dejohn.killer.game;
 
-import dev.dejohn.killer.cards.Card;
 import dev.dejohn.killer.cards.Cards;
 import dev.dejohn.killer.cards.Deck;
 
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-public record Context(Deck deck, Cards<?> pile, Cards<?> hand, Stream<Opponent> opponents) {
+// a live view of the game from one player's seat, refreshed by the game before each of that player's decisions;
+// opponents are indexed in turn order, starting with the player after this one
+public final class Context {
     public record Opponent(boolean isActive, int cardCount) {}
+
+    private final Deck deck;
+    private final int[] cardCounts;
+    private final boolean[] active;
+    private final long[] played;
+    private final int[] passes;
+    private long hand;
+    private long pile;
+
+    Context(Deck deck, int opponentCount) {
+        this.deck = deck;
+        this.cardCounts = new int[opponentCount];
+        this.active = new boolean[opponentCount];
+        this.played = new long[opponentCount];
+        this.passes = new int[opponentCount];
+    }
+
+    void update(long hand, long pile) {
+        this.hand = hand;
+        this.pile = pile;
+    }
+
+    void updateOpponent(int opponent, boolean isActive, int cardCount, long played, int passes) {
+        this.active[opponent] = isActive;
+        this.cardCounts[opponent] = cardCount;
+        this.played[opponent] = played;
+        this.passes[opponent] = passes;
+    }
+
+    public Deck deck() {
+        return deck;
+    }
+
+    public Cards<?> hand() {
+        return Cards.from(hand);
+    }
+
+    public Cards<?> pile() {
+        return Cards.from(pile);
+    }
+
+    public long handBits() {
+        return hand;
+    }
+
+    public long pileBits() {
+        return pile;
+    }
+
+    public long unseenBits() {
+        return deck.cards.bitVector & ~hand & ~pile;
+    }
+
+    public int opponentCount() {
+        return cardCounts.length;
+    }
+
+    public int cardCount(int opponent) {
+        return cardCounts[opponent];
+    }
+
+    public boolean isActive(int opponent) {
+        return active[opponent];
+    }
+
+    public long played(int opponent) {
+        return played[opponent];
+    }
+
+    public int passes(int opponent) {
+        return passes[opponent];
+    }
+
+    public Stream<Opponent> opponents() {
+        return IntStream.range(0, cardCounts.length).mapToObj(i -> new Opponent(active[i], cardCounts[i]));
+    }
 }
@@ -0,0 +1,165 @@
+package dev.dejohn.killer.game;
+
+import java.util.Arrays;
+
+// pending decisions as parallel primitive arrays; the arrays returned by the bulk accessors are the backing storage
+// and only their first size() entries (size() * opponentCount() for opponents) are meaningful. options of decision i
+// are options()[optionStart(i)] to options()[optionStart(i + 1)]; toBeat is Moves.LEAD when leading
+public final class DecisionBatch {
+    public static final int UNDECIDED = Integer.MIN_VALUE;
+    public static final int MAX_OPPONENTS = Long.SIZE;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int opponentCount;
+    private int size = 0;
+    private long[] hands = new long[INITIAL_CAPACITY];
+    private long[] piles = new long[INITIAL_CAPACITY];
+    private long[] unseen = new long[INITIAL_CAPACITY];
+    private int[] toBeat = new int[INITIAL_CAPACITY];
+    private int[] cardCounts;
+    private long[] activeOpponents = new long[INITIAL_CAPACITY];
+    private int[] optionStarts = new int[INITIAL_CAPACITY + 1];
+    private int[] options = new int[INITIAL_CAPACITY * 8];
+    private int[] choices = new int[INITIAL_CAPACITY];
+
+    DecisionBatch(int opponentCount) {
+        if (opponentCount < 1 || opponentCount > MAX_OPPONENTS) throw new IllegalArgumentException();
+
+        this.opponentCount = opponentCount;
+        this.cardCounts = new int[INITIAL_CAPACITY * opponentCount];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int add(Context context, int toBeat, int[] codes, int count) {
+        if (size == hands.length) grow();
+
+        int i = size++, start = optionStarts[i];
+        if (start + count > options.length) options = Arrays.copyOf(options, Math.max(options.length * 2, start + count));
+
+        hands[i] = context.handBits();
+        piles[i] = context.pileBits();
+        unseen[i] = context.unseenBits();
+        this.toBeat[i] = toBeat;
+        choices[i] = UNDECIDED;
+
+        long active = 0;
+        for (int o = 0; o < opponentCount; o++) {
+            cardCounts[i * opponentCount + o] = context.cardCount(o);
+            if (context.isActive(o)) active |= 1L << o;
+        }
+        activeOpponents[i] = active;
+
+        System.arraycopy(codes, 0, options, start, count);
+        optionStarts[i + 1] = start + count;
+        return i;
+    }
+
+    private void grow() {
+        int capacity = hands.length * 2;
+
+        hands = Arrays.copyOf(hands, capacity);
+        piles = Arrays.copyOf(piles, capacity);
+        unseen = Arrays.copyOf(unseen, capacity);
+        toBeat = Arrays.copyOf(toBeat, capacity);
+        cardCounts = Arrays.copyOf(cardCounts, capacity * opponentCount);
+        activeOpponents = Arrays.copyOf(activeOpponents, capacity);
+        optionStarts = Arrays.copyOf(optionStarts, capacity + 1);
+        choices = Arrays.copyOf(choices, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int opponentCount() {
+        return opponentCount;
+    }
+
+    public long hand(int i) {
+        return hands[i];
+    }
+
+    public long pile(int i) {
+        return piles[i];
+    }
+
+    public long unseen(int i) {
+        return unseen[i];
+    }
+
+    public int toBeat(int i) {
+        return toBeat[i];
+    }
+
+    public int cardCount(int i, int opponent) {
+        return cardCounts[i * opponentCount + opponent];
+    }
+
+    public boolean isActive(int i, int opponent) {
+        return (activeOpponents[i] >>> opponent & 1) != 0;
+    }
+
+    public int optionCount(int i) {
+        return optionStarts[i + 1] - optionStarts[i];
+    }
+
+    public int option(int i, int option) {
+        return options[optionStarts[i] + option];
+    }
+
+    public boolean canPass(int i) {
+        return toBeat[i] != Moves.LEAD;
+    }
+
+    public void choose(int i, int code) {
+        if (i >= size) throw new IndexOutOfBoundsException(i);
+        if (code == Action.PASS_CODE ? !canPass(i) : !isOption(i, code)) throw new IllegalArgumentException();
+        choices[i] = code;
+    }
+
+    private boolean isOption(int i, int code) {
+        for (int o = optionStarts[i]; o < optionStarts[i + 1]; o++) if (options[o] == code) return true;
+        return false;
+    }
+
+    public int choice(int i) {
+        return choices[i];
+    }
+
+    public long[] hands() {
+        return hands;
+    }
+
+    public long[] piles() {
+        return piles;
+    }
+
+    public long[] unseen() {
+        return unseen;
+    }
+
+    public int[] toBeat() {
+        return toBeat;
+    }
+
+    public int[] cardCounts() {
+        return cardCounts;
+    }
+
+    // bit o of entry i is set while opponent o is active
+    public long[] activeOpponents() {
+        return activeOpponents;
+    }
+
+    public int[] optionStarts() {
+        return optionStarts;
+    }
+
+    public int[] options() {
+        return options;
+    }
+}
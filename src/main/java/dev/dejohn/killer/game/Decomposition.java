@@ -0,0 +1,144 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.cards.CardBits;
+import dev.dejohn.killer.cards.Rank;
+
+import dev.dejohn.killer.game.Action.Depth;
+import dev.dejohn.killer.game.Action.Length;
+
+import static dev.dejohn.killer.cards.Rank.TWO;
+import static dev.dejohn.killer.cards.Suit.HEARTS;
+
+// fewest plays that empty a hand. hands are reduced to their rank histogram (see CardBits) and a wild count; the
+// play covering the lowest natural rank is branched on and every solved count vector is kept in a table shared by
+// all hands evaluated through this instance
+public final class Decomposition {
+    private static final Rank[] RANKS = Rank.values();
+    private static final int RANK_COUNT = RANKS.length;
+    private static final int LANE = 3;
+    private static final long LANE_MASK = 7;
+    private static final int WILD_SHIFT = RANK_COUNT * LANE;
+    private static final int PLAYS_MASK = 0xFF;
+    private static final int CODE_SHIFT = 8;
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_RUN_DEPTH = 3;
+    private static final long TWO_OF_HEARTS_VECTOR = TWO.of(HEARTS).getBitVector();
+
+    public static final int DEFAULT_TABLE_BITS = 16;
+
+    private final int mask;
+    private final long[] keys;
+    private final int[] values;
+
+    public Decomposition() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    public Decomposition(int tableBits) {
+        if (tableBits < 1 || tableBits > 28) throw new IllegalArgumentException();
+
+        this.mask = (1 << tableBits) - 1;
+        this.keys = new long[1 << tableBits];
+        this.values = new int[1 << tableBits];
+    }
+
+    public int plays(long hand) {
+        return solve(CardBits.histogram(hand), wilds(hand)) & PLAYS_MASK;
+    }
+
+    // writes the play codes of one optimal decomposition, returning how many; naturals are used before wilds and a
+    // lone two of hearts is played as TwoOfHearts
+    public int decompose(long hand, int[] codes) {
+        long counts = CardBits.histogram(hand);
+        int wilds = wilds(hand), n = 0;
+
+        while (counts != 0) {
+            int code = (solve(counts, wilds) >>> CODE_SHIFT) - 1;
+            var play = Action.decodePlay(code);
+            codes[n++] = code;
+
+            for (int r = play.rank.ordinal(); r < play.rank.ordinal() + play.length.asInt; r++) {
+                int take = (int) Math.min(counts >>> (r * LANE) & LANE_MASK, play.depth.asInt);
+                counts -= (long) take << (r * LANE);
+                wilds -= play.depth.asInt - take;
+            }
+        }
+
+        if (wilds > 0) codes[n++] = wildCode(wilds);
+
+        if ((hand & TWO_OF_HEARTS_VECTOR) != 0) {
+            int single = Action.code(TWO, Depth.SINGLE, Length.ONE);
+            for (int i = 0; i < n; i++) {
+                if (codes[i] == single) {
+                    codes[i] = Action.twoOfHeartsCode();
+                    break;
+                }
+            }
+        }
+
+        return n;
+    }
+
+    private static int wilds(long hand) {
+        return Long.bitCount(hand & CardBits.WILDS);
+    }
+
+    private static int wildCode(int wilds) {
+        return wilds <= MAX_DEPTH
+            ? Action.code(Rank.ACE, Depth.of(wilds), Length.ONE)
+            : Action.code(Rank.THREE, Depth.SINGLE, Length.of(wilds));
+    }
+
+    private int solve(long counts, int wilds) {
+        if (counts == 0) return wilds == 0 ? 0 : 1 | (wildCode(wilds) + 1) << CODE_SHIFT;
+
+        long key = counts | (long) wilds << WILD_SHIFT;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ h >>> 32) & mask;
+        if (keys[slot] == key + 1) return values[slot];
+
+        int r = Long.numberOfTrailingZeros(counts) / LANE;
+        int count = (int) (counts >>> (r * LANE) & LANE_MASK);
+        int best = Integer.MAX_VALUE, bestCode = -1;
+
+        for (int d = 1; d <= MAX_DEPTH; d++) {
+            int take = Math.min(count, d);
+            if (d - take > wilds) break;
+
+            int plays = 1 + (solve(counts - ((long) take << (r * LANE)), wilds - (d - take)) & PLAYS_MASK);
+            if (plays < best) {
+                best = plays;
+                bestCode = Action.code(RANKS[r], Depth.of(d), Length.ONE);
+            }
+        }
+
+        // runs through r may start below it on wilds alone, since every lower rank is already empty
+        for (int d = 1; d <= MAX_RUN_DEPTH; d++) {
+            for (int s = Math.max(0, r - wilds / d); s <= r; s++) {
+                long rest = counts;
+                int need = 0;
+
+                for (int e = s; e < RANK_COUNT; e++) {
+                    int take = (int) Math.min(rest >>> (e * LANE) & LANE_MASK, d);
+                    rest -= (long) take << (e * LANE);
+                    need += d - take;
+                    if (need > wilds) break;
+
+                    int length = e - s + 1;
+                    if (length < Length.THREE.asInt || e < r) continue;
+
+                    int plays = 1 + (solve(rest, wilds - need) & PLAYS_MASK);
+                    if (plays < best) {
+                        best = plays;
+                        bestCode = Action.code(RANKS[s], Depth.of(d), Length.of(length));
+                    }
+                }
+            }
+        }
+
+        int value = best | (bestCode + 1) << CODE_SHIFT;
+        keys[slot] = key + 1;
+        values[slot] = value;
+        return value;
+    }
+}
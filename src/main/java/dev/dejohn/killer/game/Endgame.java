@@ -0,0 +1,207 @@
+package dev.dejohn.killer.game;
+
+import java.util.Arrays;
+
+import static dev.dejohn.killer.cards.Rank.THREE;
+import static dev.dejohn.killer.cards.Suit.CLUBS;
+
+// exact solver for the last two players in, both hands known: the player to move faces toBeat (Moves.LEAD when
+// leading); when the other player has passed this round the player to move keeps facing its own plays until it
+// passes, which starts a new round it leads
+public final class Endgame {
+    private static final int PASS = Action.PASS_CODE;
+    private static final int LEAD = Moves.LEAD;
+    private static final int MAX_DEPTH = 3 * Long.SIZE + 1;
+    private static final int MOVES = Action.PLAY_COUNT + 1;
+    private static final long THREE_OF_CLUBS = THREE.of(CLUBS).getBitVector();
+
+    private static final int VALID = 1 << 31;
+    private static final int WINS = 1 << 30;
+    private static final int OTHER_ACTIVE = 1 << 29;
+    private static final int TO_BEAT_MASK = 0xFF;
+    private static final int MOVE_SHIFT = 8;
+
+    public static final int DEFAULT_TABLE_BITS = 18;
+
+    public record Solution(boolean wins, int move, int[] line, long nodes) {
+        @Override
+        public String toString() {
+            var builder = new StringBuilder(wins ? "wins with " : "loses, best try ").append(describe(move)).append(':');
+            for (int code : line) builder.append(' ').append(describe(code));
+            return builder.append(" (").append(nodes).append(" nodes)").toString();
+        }
+
+        private static String describe(int code) {
+            return code == PASS ? "pass" : Action.decodePlay(code).toString();
+        }
+    }
+
+    private final Moves moves = new Moves();
+    private final int[][] buffers = new int[MAX_DEPTH][MOVES];
+    private final int[][] sizes = new int[MAX_DEPTH][MOVES];
+    private final int mask;
+    private final long[] hands;
+    private final long[] others;
+    private final int[] entries;
+    private long nodes;
+
+    public Endgame() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    public Endgame(int tableBits) {
+        if (tableBits < 1 || tableBits > 28) throw new IllegalArgumentException();
+
+        this.mask = (1 << tableBits) - 1;
+        this.hands = new long[1 << tableBits];
+        this.others = new long[1 << tableBits];
+        this.entries = new int[1 << tableBits];
+    }
+
+    public Solution solve(long hand, long other, int toBeat, boolean isOtherActive) {
+        if (hand == 0 || other == 0 || (hand & other) != 0) throw new IllegalArgumentException();
+        if (toBeat < LEAD || toBeat == PASS || toBeat >= Action.PLAY_COUNT) throw new IllegalArgumentException();
+
+        nodes = 0;
+        boolean wins = wins(hand, other, toBeat, isOtherActive, 0);
+        long searched = nodes;
+        int[] line = new int[MAX_DEPTH];
+        int n = 0;
+
+        while (true) {
+            int entry = probe(hand, other, toBeat, isOtherActive);
+            if (entry == 0) {
+                wins(hand, other, toBeat, isOtherActive, 0);
+                entry = probe(hand, other, toBeat, isOtherActive);
+            }
+
+            int code = (entry >>> MOVE_SHIFT & TO_BEAT_MASK) - 2;
+            line[n++] = code;
+
+            if (code == PASS) {
+                if (isOtherActive) {
+                    long h = hand;
+                    hand = other;
+                    other = h;
+                    isOtherActive = false;
+                }
+                else {
+                    toBeat = LEAD;
+                    isOtherActive = true;
+                }
+                continue;
+            }
+
+            long rest = hand & ~Moves.select(hand, code);
+            if (rest == 0) break;
+
+            toBeat = code;
+            if (isOtherActive) {
+                hand = other;
+                other = rest;
+            }
+            else hand = rest;
+        }
+
+        return new Solution(wins, line[0], Arrays.copyOfRange(line, 1, n), searched);
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    private boolean wins(long hand, long other, int toBeat, boolean isOtherActive, int depth) {
+        nodes++;
+
+        int entry = probe(hand, other, toBeat, isOtherActive);
+        if (entry != 0) return (entry & WINS) != 0;
+
+        int[] buffer = buffers[depth];
+        int[] size = sizes[depth];
+        int n = toBeat == LEAD ? leads(hand, buffer) : moves.respond(hand, toBeat, buffer);
+
+        for (int i = 0; i < n; i++) {
+            long cards = Moves.select(hand, buffer[i]);
+
+            if (cards == hand) {
+                store(hand, other, toBeat, isOtherActive, true, buffer[i]);
+                return true;
+            }
+
+            size[i] = Long.bitCount(cards);
+        }
+
+        // larger plays first, shedding cards is what ends the game
+        for (int i = 1; i < n; i++) {
+            int code = buffer[i], s = size[i], j = i;
+            for (; j > 0 && size[j - 1] < s; j--) {
+                buffer[j] = buffer[j - 1];
+                size[j] = size[j - 1];
+            }
+            buffer[j] = code;
+            size[j] = s;
+        }
+
+        if (toBeat != LEAD) buffer[n++] = PASS;
+
+        int best = buffer[0];
+        long hardest = -1;
+
+        for (int i = 0; i < n; i++) {
+            int code = buffer[i];
+            long before = nodes;
+            boolean wins;
+
+            if (code == PASS) wins = isOtherActive ? !wins(other, hand, toBeat, false, depth + 1) : wins(hand, other, LEAD, true, depth + 1);
+            else {
+                long rest = hand & ~Moves.select(hand, code);
+                wins = isOtherActive ? !wins(other, rest, code, true, depth + 1) : wins(rest, other, code, false, depth + 1);
+            }
+
+            if (wins) {
+                store(hand, other, toBeat, isOtherActive, true, code);
+                return true;
+            }
+
+            if (nodes - before > hardest) {
+                hardest = nodes - before;
+                best = code;
+            }
+        }
+
+        store(hand, other, toBeat, isOtherActive, false, best);
+        return false;
+    }
+
+    // as in Game, whoever holds the three of clubs has to lead a three
+    private int leads(long hand, int[] buffer) {
+        int n = moves.generate(hand, buffer);
+        if ((hand & THREE_OF_CLUBS) == 0) return n;
+
+        int m = 0;
+        for (int i = 0; i < n; i++) if (Action.decodePlay(buffer[i]).rank == THREE) buffer[m++] = buffer[i];
+        return m;
+    }
+
+    private int index(long hand, long other, int toBeat, boolean isOtherActive) {
+        long h = (hand * 0x9E3779B97F4A7C15L) ^ Long.rotateLeft(other * 0xC2B2AE3D27D4EB4FL, 31) ^ ((toBeat + 2L) << 1 | (isOtherActive ? 1 : 0)) * 0x165667B19E3779F9L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+
+    private int probe(long hand, long other, int toBeat, boolean isOtherActive) {
+        int i = index(hand, other, toBeat, isOtherActive);
+        int entry = entries[i];
+        int key = (toBeat + 2) | (isOtherActive ? OTHER_ACTIVE : 0);
+
+        if (entry == 0 || hands[i] != hand || others[i] != other || (entry & (TO_BEAT_MASK | OTHER_ACTIVE)) != key) return 0;
+        return entry;
+    }
+
+    private void store(long hand, long other, int toBeat, boolean isOtherActive, boolean wins, int move) {
+        int i = index(hand, other, toBeat, isOtherActive);
+
+        hands[i] = hand;
+        others[i] = other;
+        entries[i] = VALID | (wins ? WINS : 0) | (isOtherActive ? OTHER_ACTIVE : 0) | (move + 2) << MOVE_SHIFT | (toBeat + 2);
+    }
+}
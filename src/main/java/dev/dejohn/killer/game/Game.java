@@ -5,38 +5,77 @@ import dev.dejohn.killer.cards.Cards;
 import dev.dejohn.killer.cards.Deck;
 import dev.dejohn.killer.cards.Rank;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
 
 import static dev.dejohn.killer.cards.Rank.THREE;
 import static dev.dejohn.killer.cards.Suit.CLUBS;
 
 public class Game {
+    public enum Fallback { PASS, LOWEST }
+
+    private static final ExecutorService DECISIONS = Executors.newVirtualThreadPerTaskExecutor();
+
     public static Game of(Deck deck, Set<? extends Brain> brains) {
-        return new Game(deck, brains);
+        return new Game(deck, brains, false);
+    }
+
+    public static Game headless(Deck deck, Set<? extends Brain> brains) {
+        return new Game(deck, brains, true);
     }
 
     private class Player {
         private final Brain brain;
+        private final int id;
+        private int seat;
 
         private Cards<?> hand = Cards.of();
         private boolean isActive = false;
+        private int position = -1;
+        private long played = 0;
+        private int passes = 0;
         private Player next;
+        private Context context;
+        private Future<?> overrun;
+        private final long[] optionBits = new long[Moves.WORDS];
 
-        private Player(Brain brain) {
+        private Player(Brain brain, int id) {
             this.brain = brain;
+            this.id = id;
         }
 
         private void deal(Cards<?> hand) {
             this.hand = hand;
+            isActive = false;
+            position = -1;
+            played = 0;
+            passes = 0;
+            if (!hand.isEmpty()) inCount++;
         }
 
         private void removeCards(Cards<?> cards) {
             hand = hand.remove(cards);
+            played |= cards.bitVector;
+            pile |= cards.bitVector;
+            if (hand.isEmpty()) finish();
+        }
+
+        private void finish() {
+            inCount--;
+            position = finishedCount++;
         }
 
         private void setActive() {
+            if (isActive) return;
             isActive = true;
+            activeCount++;
+        }
+
+        private void setInactive() {
+            if (!isActive) return;
+            isActive = false;
+            activeCount--;
         }
 
         private boolean isActive() {
@@ -55,45 +94,117 @@ public class Game {
             return next.isActive ? next : next.next();
         }
 
-        private Context.Opponent asOpponent() {
-            return new Context.Opponent(isActive, hand.size());
-        }
-
         private Context context() {
-            return new Context(
-                deck, pile, hand,
-                players.stream().filter(p -> p != this).map(Player::asOpponent)
-            );
+            if (context == null) context = new Context(deck, players.size() - 1);
+
+            context.update(hand.bitVector, pile);
+            int i = 0;
+            for (var p = next; p != this; p = p.next) context.updateOpponent(i++, p.isActive, p.hand.size(), p.played, p.passes);
+
+            return context;
         }
 
         private void onAction(Action<?> action) {
+            turns++;
+
             if (action instanceof Action.Play<?> play) {
-                var cards = play.select(hand);
-                hand = hand.remove(cards);
+                removeCards(play.select(hand));
                 toBeat = play;
 
-                if (hand.isEmpty()) isActive = false;
+                if (isOut()) setInactive();
+            }
+            else {
+                passes++;
+                setInactive();
+                for (var listener : listeners) listener.onPass(seat);
             }
-            else isActive = false;
 
-            System.out.println(this + " ---- " + action);
+            if (!isHeadless) System.out.println(this + " ---- " + action);
         }
 
         private void doStartingAction() {
-            System.out.println("----------------------------------------");
+            if (!isHeadless) System.out.println("----------------------------------------");
 
-            onAction(
-                brain.getAction(
-                    context(),
-                    hand.contains(THREE.of(CLUBS))
-                        ? Action.stream(hand).filter(a -> a.rank == Rank.THREE)
-                        : Action.stream(hand)
-                )
-            );
+            var options = hand.contains(THREE.of(CLUBS))
+                ? Action.stream(hand).filter(a -> a.rank == Rank.THREE)
+                : Action.stream(hand);
+
+            if (budget == 0 && listeners.length == 0 && overrun == null) onAction(brain.getAction(context(), options));
+            else decide(options.toList(), true);
         }
 
         private void doAction() {
-            onAction(brain.getAction(context(), toBeat, toBeat.playable(hand)));
+            if (budget == 0 && listeners.length == 0 && overrun == null) onAction(brain.getAction(context(), toBeat, toBeat.playable(hand)));
+            else decide(toBeat.playable(hand).toList(), false);
+        }
+
+        private void decide(List<? extends Action.Play<Object>> options, boolean isLeading) {
+            var context = context();
+
+            if (listeners.length > 0) {
+                Arrays.fill(optionBits, 0);
+                for (var play : options) optionBits[play.encode() >>> 6] |= 1L << play.encode();
+                for (var listener : listeners) listener.onTurn(seat, context, isLeading ? Moves.LEAD : toBeat.encode(), optionBits);
+            }
+
+            long start = System.nanoTime();
+            Action.Play<?> toBeat = isLeading ? null : Game.this.toBeat;
+            Action<?> action;
+
+            if (overrun != null && overrun.isDone()) overrun = null;
+
+            if (budget == 0 && overrun == null) action = ask(context, options, toBeat);
+            else if (overrun != null) {
+                // still busy with a decision it overran; the brain is not asked again until that call returns
+                action = fallback(options, isLeading);
+                for (var listener : listeners) listener.onBudgetExceeded(seat, brain, System.nanoTime() - start);
+            }
+            else {
+                var task = DECISIONS.submit(() -> ask(context, options, toBeat));
+
+                try {
+                    action = task.get(budget, TimeUnit.NANOSECONDS);
+                }
+                catch (TimeoutException e) {
+                    task.cancel(true);
+                    overrun = task;
+                    this.context = null;
+                    action = fallback(options, isLeading);
+                    for (var listener : listeners) listener.onBudgetExceeded(seat, brain, System.nanoTime() - start);
+                }
+                catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException r) throw r;
+                    if (e.getCause() instanceof Error r) throw r;
+                    throw new IllegalStateException(e.getCause());
+                }
+                catch (InterruptedException e) {
+                    task.cancel(true);
+                    overrun = task;
+                    this.context = null;
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+            }
+
+            if (action == null) action = fallback(options, isLeading);
+
+            long nanos = System.nanoTime() - start;
+            for (var listener : listeners) listener.onDecision(seat, brain, options.size(), action.encode(), nanos);
+            onAction(action);
+        }
+
+        // toBeat is null when leading; it is passed in rather than read from the game, which may have moved on by the time
+        // an overrunning call gets to it
+        private Action<?> ask(Context context, List<? extends Action.Play<Object>> options, Action.Play<?> toBeat) {
+            return toBeat == null ? brain.getAction(context, options.stream()) : brain.getAction(context, toBeat, options.stream());
+        }
+
+        private Action<?> fallback(List<? extends Action.Play<Object>> options, boolean isLeading) {
+            if (options.isEmpty() || (fallback == Fallback.PASS && !isLeading)) return Action.pass();
+
+            Action.Play<Object> lowest = options.getFirst();
+            for (var play : options) if (play.encode() < lowest.encode()) lowest = play;
+            return lowest;
         }
 
         @Override
@@ -104,50 +215,130 @@ public class Game {
 
     public final Deck deck;
     private final ArrayList<Player> players;
+    private final boolean isHeadless;
 
-    private Cards<?> pile = Cards.of();
+    private static final GameListener[] NO_LISTENERS = {};
+
+    private final long[] dealt;
+    private final int[] seats;
+    private final int[] positions;
+
+    private GameListener[] listeners = NO_LISTENERS;
+    private long budget = 0;
+    private Fallback fallback = Fallback.PASS;
+    private long pile = 0;
     private Action.Play<?> toBeat = null;
     private Player currentPlayer;
+    private int inCount = 0;
+    private int activeCount = 0;
+    private int finishedCount = 0;
+    private int round = 0;
+    private int turns = 0;
 
-    private Game(Deck deck, Set<? extends Brain> brains) {
+    private Game(Deck deck, Set<? extends Brain> brains, boolean isHeadless) {
         this.deck = deck;
-        this.players = brains.stream().map(Player::new).collect(Collectors.toCollection(ArrayList::new));
+        this.players = new ArrayList<>(brains.size());
+        this.isHeadless = isHeadless;
+        this.dealt = new long[brains.size()];
+        this.seats = new int[brains.size()];
+        this.positions = new int[brains.size()];
+
+        for (var brain : brains) players.add(new Player(brain, players.size()));
+    }
+
+    public void addListener(GameListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(GameListener listener) {
+        listeners = Arrays.stream(listeners).filter(l -> l != listener).toArray(GameListener[]::new);
+    }
+
+    // runs each decision on a virtual thread; a brain that overruns the budget is interrupted and the fallback is played
+    // in its place (leading players and LOWEST play their lowest-coded option), as it is for every later decision until
+    // the overrunning call returns, so a brain is never called twice at once. a zero budget waits indefinitely
+    public void setBudget(Duration budget, Fallback fallback) {
+        if (budget.isNegative()) throw new IllegalArgumentException();
+
+        this.budget = budget.toNanos();
+        this.fallback = fallback;
+    }
+
+    public Duration budget() {
+        return Duration.ofNanos(budget);
+    }
+
+    public boolean isHeadless() {
+        return isHeadless;
+    }
+
+    public int positionOf(Brain brain) {
+        for (var player : players) if (player.brain == brain) return player.position;
+        throw new IllegalArgumentException();
+    }
+
+    // the id reported for this brain's seat in GameListener.onDeal
+    public int idOf(Brain brain) {
+        for (var player : players) if (player.brain == brain) return player.id;
+        throw new IllegalArgumentException();
     }
 
     private void initialize() {
-        pile = Cards.of();
+        pile = 0;
         toBeat = null;
-        Collections.shuffle(players);
+        inCount = 0;
+        activeCount = 0;
+        finishedCount = 0;
+        round = 0;
+        deck.shuffle(players);
 
-        var hands = deck.deal(players.size());
+        long seed = deck.nextSeed();
+        deck.seeded(seed).deal(dealt);
 
         for (int i = 0; i < players.size(); i++) {
             var player = players.get(i);
+            var hand = Cards.from(dealt[i]);
 
-            if (hands.get(i).contains(THREE.of(CLUBS))) currentPlayer = player;
-            player.deal(hands.get(i));
+            if (hand.contains(THREE.of(CLUBS))) currentPlayer = player;
+            player.deal(hand);
+            player.seat = i;
             player.next = (i < players.size() - 1) ? players.get(i + 1) : players.getFirst();
+            seats[i] = player.id;
         }
+
+        for (var listener : listeners) listener.onDeal(seats, dealt, players.size(), seed);
     }
 
     private boolean isAnyoneActive() {
-        return players.stream().anyMatch(Player::isActive);
+        return activeCount > 0;
     }
 
     private boolean isMoreThanOnePlayerLeft() {
-        return players.stream().filter(Player::isIn).limit(2).count() > 1;
+        return inCount > 1;
     }
 
     public void start() {
         initialize();
         while (isMoreThanOnePlayerLeft()) newRound();
+        for (var player : players) if (player.isIn()) player.finish();
+
+        if (listeners.length == 0) return;
+        for (var player : players) positions[player.seat] = player.position;
+        for (var listener : listeners) listener.onGameEnd(round, positions, players.size());
     }
 
     private void newRound() {
-        players.stream().filter(Player::isIn).forEach(Player::setActive);
+        for (var player : players) if (player.isIn()) player.setActive();
         while (currentPlayer.isOut()) currentPlayer = currentPlayer.next();
 
+        round++;
+        turns = 0;
+        for (var listener : listeners) listener.onRoundStart(round, currentPlayer.seat);
+
         currentPlayer.doStartingAction();
         while (isAnyoneActive() && isMoreThanOnePlayerLeft()) (currentPlayer = currentPlayer.next()).doAction();
+
+        for (var listener : listeners) listener.onRoundEnd(round, turns);
     }
 }
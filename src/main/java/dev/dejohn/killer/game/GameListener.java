@@ -0,0 +1,17 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+
+// seats are positions at the table for the current deal; players are ids in the order the brains were given to the game.
+// a deal is made from its own seed: the deck seeded with it deals the same hands in seat order
+public interface GameListener {
+    default void onDeal(int[] players, long[] hands, int seats, long seed) {}
+    default void onRoundStart(int round, int seat) {}
+    // options is a bitset over play codes, only valid during the call
+    default void onTurn(int seat, Context context, int toBeat, long[] options) {}
+    default void onDecision(int seat, Brain brain, int options, int code, long nanos) {}
+    default void onBudgetExceeded(int seat, Brain brain, long nanos) {}
+    default void onPass(int seat) {}
+    default void onRoundEnd(int round, int turns) {}
+    default void onGameEnd(int rounds, int[] positions, int seats) {}
+}
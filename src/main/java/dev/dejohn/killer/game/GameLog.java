@@ -0,0 +1,90 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// file: MAGIC, then per game a GAME record (tag, the deal's seed, deck, seat count, then player id and dealt hand per seat)
+// followed by one two-byte record (seat, play code or PASS) per action; all values are little-endian
+public final class GameLog implements GameListener, AutoCloseable {
+    public static final int MAGIC = 0x4B4C4731;
+    public static final byte GAME = (byte) 0xFE;
+    public static final byte PASS = (byte) 0xFF;
+    public static final int MAX_SEATS = 0x80;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static GameLog create(Path path) throws IOException {
+        return new GameLog(FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING));
+    }
+
+    public static GameLog append(Path path) throws IOException {
+        return new GameLog(FileChannel.open(path, CREATE, WRITE, APPEND));
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long games = 0;
+    private long actions = 0;
+
+    private GameLog(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.size() == 0) buffer.putInt(MAGIC);
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long actions() {
+        return actions;
+    }
+
+    @Override
+    public void onDeal(int[] players, long[] hands, int seats, long seed) {
+        if (seats > MAX_SEATS) throw new IllegalArgumentException();
+
+        long deck = 0;
+        for (int i = 0; i < seats; i++) deck |= hands[i];
+
+        ensure(Byte.BYTES * 2 + Long.BYTES * 2 + seats * (Byte.BYTES + Long.BYTES));
+        buffer.put(GAME).putLong(seed).putLong(deck).put((byte) seats);
+        for (int i = 0; i < seats; i++) buffer.put((byte) players[i]).putLong(hands[i]);
+        games++;
+    }
+
+    @Override
+    public void onDecision(int seat, Brain brain, int options, int code, long nanos) {
+        ensure(Byte.BYTES * 2);
+        buffer.put((byte) seat).put(code == Action.PASS_CODE ? PASS : (byte) code);
+        actions++;
+    }
+
+    public void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
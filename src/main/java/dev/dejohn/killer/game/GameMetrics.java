@@ -0,0 +1,96 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class GameMetrics implements GameListener {
+    private static final int MAX_ROUNDS = 256;
+    private static final int MAX_TURNS = 256;
+
+    private final Map<Brain, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<Brain, LongAdder> overruns = new ConcurrentHashMap<>();
+    private final Histogram options = Histogram.linear(Action.PLAY_COUNT);
+    private final Histogram rounds = Histogram.linear(MAX_ROUNDS);
+    private final Histogram turns = Histogram.linear(MAX_TURNS);
+    private final LongAdder games = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+
+    @Override
+    public void onDecision(int seat, Brain brain, int options, int code, long nanos) {
+        var latency = latencies.get(brain);
+        if (latency == null) latency = latencies.computeIfAbsent(brain, b -> Histogram.exponential());
+
+        latency.record(nanos);
+        this.options.record(options);
+    }
+
+    @Override
+    public void onBudgetExceeded(int seat, Brain brain, long nanos) {
+        overruns.computeIfAbsent(brain, b -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onPass(int seat) {
+        passes.increment();
+    }
+
+    @Override
+    public void onRoundEnd(int round, int turns) {
+        this.turns.record(turns);
+    }
+
+    @Override
+    public void onGameEnd(int rounds, int[] positions, int seats) {
+        this.rounds.record(rounds);
+        games.increment();
+    }
+
+    public Histogram latency(Brain brain) {
+        return latencies.get(brain);
+    }
+
+    public Map<Brain, Histogram> latencies() {
+        return Map.copyOf(latencies);
+    }
+
+    public long overruns(Brain brain) {
+        var count = overruns.get(brain);
+        return count == null ? 0 : count.sum();
+    }
+
+    public Histogram options() {
+        return options;
+    }
+
+    public Histogram rounds() {
+        return rounds;
+    }
+
+    public Histogram turns() {
+        return turns;
+    }
+
+    public long games() {
+        return games.sum();
+    }
+
+    public long passes() {
+        return passes.sum();
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder()
+            .append("games: ").append(games()).append(", passes: ").append(passes())
+            .append("\noptions per turn: ").append(options)
+            .append("\nrounds per game: ").append(rounds)
+            .append("\nturns per round: ").append(turns);
+
+        latencies.forEach((brain, latency) -> builder.append("\nlatency (ns) ").append(brain).append(": ").append(latency));
+        overruns.forEach((brain, count) -> builder.append("\nbudget exceeded ").append(brain).append(": ").append(count.sum()));
+        return builder.toString();
+    }
+}
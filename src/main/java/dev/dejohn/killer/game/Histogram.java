@@ -0,0 +1,76 @@
+package dev.dejohn.killer.game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Histogram {
+    public static Histogram linear(int max) {
+        return new Histogram(max + 1, false);
+    }
+
+    public static Histogram exponential() {
+        return new Histogram(Long.SIZE, true);
+    }
+
+    private final AtomicLongArray buckets;
+    private final boolean isExponential;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    private Histogram(int size, boolean isExponential) {
+        this.buckets = new AtomicLongArray(size);
+        this.isExponential = isExponential;
+    }
+
+    public void record(long value) {
+        int bucket = isExponential
+            ? Long.SIZE - 1 - Long.numberOfLeadingZeros(Math.max(1, value))
+            : (int) Math.min(Math.max(0, value), buckets.length() - 1);
+
+        buckets.getAndIncrement(bucket);
+        count.increment();
+        sum.add(value);
+    }
+
+    public void addAll(Histogram other) {
+        if (other.buckets.length() != buckets.length() || other.isExponential != isExponential) throw new IllegalArgumentException();
+
+        for (int i = 0; i < buckets.length(); i++) buckets.getAndAdd(i, other.buckets.get(i));
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    public long bucket(int index) {
+        return buckets.get(index);
+    }
+
+    public int buckets() {
+        return buckets.length();
+    }
+
+    // upper bound of the bucket holding the given quantile
+    public long quantile(double q) {
+        long target = (long) Math.ceil(q * count.sum()), seen = 0;
+
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= target && seen > 0) return isExponential ? (i == Long.SIZE - 1 ? Long.MAX_VALUE : (2L << i) - 1) : i;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1f p50=%d p99=%d", count(), mean(), quantile(0.5), quantile(0.99));
+    }
+}
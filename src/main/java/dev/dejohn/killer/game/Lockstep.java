@@ -0,0 +1,217 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.BatchBrain;
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Deck;
+
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// plays many tables at once, each on its own virtual thread. the first batchedSeats seats of every table belong to a
+// BatchBrain: their decisions are parked until every table still playing is waiting on one, then decided together
+public final class Lockstep {
+    public record Result(Tournament.Result standings, long batches, long decisions, long nanos) {
+        public double averageBatch() {
+            return batches == 0 ? 0 : (double) decisions / batches;
+        }
+
+        public double decisionsPerSecond() {
+            return nanos == 0 ? 0 : decisions * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%n%d batches, %.1f decisions per batch, %.0f decisions/s",
+                standings, batches, averageBatch(), decisionsPerSecond());
+        }
+    }
+
+    public static Result run(Deck deck, BatchBrain brain, int batchedSeats, List<? extends Supplier<? extends Brain>> others, int tables, long games) {
+        return run(deck, brain, batchedSeats, others, tables, games, new SplittableRandom().nextLong());
+    }
+
+    public static Result run(Deck deck, BatchBrain brain, int batchedSeats, List<? extends Supplier<? extends Brain>> others, int tables, long games, long seed) {
+        if (batchedSeats < 1 || batchedSeats + others.size() < 2 || tables < 1) throw new IllegalArgumentException();
+        if (batchedSeats + others.size() - 1 > DecisionBatch.MAX_OPPONENTS) throw new IllegalArgumentException();
+        return new Lockstep(brain, batchedSeats + others.size(), tables).play(deck, batchedSeats, List.copyOf(others), games, new SplittableRandom(seed));
+    }
+
+    private final class Seat implements Brain {
+        private final int[] codes = new int[Action.PLAY_COUNT];
+
+        @Override
+        public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+            List<? extends Action.Play<T>> plays = options.toList();
+            int code = await(context, Moves.LEAD, plays, codes);
+
+            for (var play : plays) if (play.encode() == code) return play;
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+            List<? extends Action.Play<T>> plays = options.toList();
+            int code = await(context, toBeat.encode(), plays, codes);
+            if (code == Action.PASS_CODE) return Action.pass();
+
+            for (var play : plays) if (play.encode() == code) return play;
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public String toString() {
+            return "batched";
+        }
+    }
+
+    private final BatchBrain brain;
+    private final int seats;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final Condition decided = lock.newCondition();
+    private final DecisionBatch[] batches = new DecisionBatch[2];
+    private int live;
+    private int waiting = 0;
+    private long generation = 0;
+    private long decisions = 0;
+    private Throwable failure;
+
+    private Lockstep(BatchBrain brain, int seats, int tables) {
+        this.brain = brain;
+        this.seats = seats;
+        this.live = tables;
+        for (int b = 0; b < batches.length; b++) batches[b] = new DecisionBatch(seats - 1);
+    }
+
+    private int await(Context context, int toBeat, List<? extends Action.Play<?>> plays, int[] codes) {
+        for (int i = 0; i < plays.size(); i++) codes[i] = plays.get(i).encode();
+
+        lock.lock();
+        try {
+            long current = generation;
+            var batch = batches[(int) (current & 1)];
+            int slot = batch.add(context, toBeat, codes, plays.size());
+
+            if (++waiting == live) ready.signal();
+            while (generation == current) decided.awaitUninterruptibly();
+            if (failure != null) throw new IllegalStateException(failure);
+
+            int code = batch.choice(slot);
+            if (code == DecisionBatch.UNDECIDED) throw new IllegalStateException();
+            return code;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private Result play(Deck deck, int batchedSeats, List<? extends Supplier<? extends Brain>> others, long games, SplittableRandom random) {
+        int tables = live;
+        var positions = new long[tables][seats][seats];
+        var threads = new Thread[tables];
+        long start = System.nanoTime(), rounds = 0;
+
+        for (int t = 0; t < tables; t++) {
+            var seated = new Brain[seats];
+            var table = new LinkedHashSet<Brain>();
+
+            for (int seat = 0; seat < seats; seat++) {
+                table.add(seated[seat] = seat < batchedSeats ? new Seat() : others.get(seat - batchedSeats).get());
+            }
+            if (table.size() < seats) throw new IllegalArgumentException();
+
+            var game = Game.headless(deck.withRandom(random.split()), table);
+            long share = games / tables + (t < games % tables ? 1 : 0);
+            var counts = positions[t];
+
+            threads[t] = Thread.ofVirtual().unstarted(() -> {
+                try {
+                    for (long i = 0; i < share; i++) {
+                        game.start();
+                        for (int seat = 0; seat < seats; seat++) counts[seat][game.positionOf(seated[seat])]++;
+                    }
+                }
+                catch (Throwable e) {
+                    lock.lock();
+                    try {
+                        if (failure == null) failure = e;
+                    }
+                    finally {
+                        lock.unlock();
+                    }
+                }
+                finally {
+                    leave();
+                }
+            });
+        }
+
+        for (var thread : threads) thread.start();
+
+        lock.lock();
+        try {
+            while (true) {
+                while (live > 0 && waiting < live) ready.awaitUninterruptibly();
+                if (live == 0) break;
+
+                var batch = batches[(int) (generation & 1)];
+                batches[(int) (~generation & 1)].clear();
+
+                if (failure == null) {
+                    try {
+                        brain.decide(batch);
+                    }
+                    catch (Throwable e) {
+                        failure = e;
+                    }
+                }
+
+                decisions += batch.size();
+                rounds++;
+                waiting = 0;
+                generation++;
+                decided.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        for (var thread : threads) {
+            try {
+                thread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        if (failure instanceof RuntimeException e) throw e;
+        if (failure instanceof Error e) throw e;
+        if (failure != null) throw new IllegalStateException(failure);
+
+        var total = new long[seats][seats];
+        for (var counts : positions) {
+            for (int seat = 0; seat < seats; seat++) {
+                for (int p = 0; p < seats; p++) total[seat][p] += counts[seat][p];
+            }
+        }
+
+        return new Result(new Tournament.Result(games, total), rounds, decisions, System.nanoTime() - start);
+    }
+
+    private void leave() {
+        lock.lock();
+        try {
+            live--;
+            if (waiting == live) ready.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.cards.CardBits;
+import dev.dejohn.killer.cards.Cards;
+import dev.dejohn.killer.cards.Rank;
+import dev.dejohn.killer.game.Action.Depth;
+import dev.dejohn.killer.game.Action.Length;
+
+import java.util.Arrays;
+
+import static dev.dejohn.killer.cards.Cards.NATURAL_COUNT;
+import static dev.dejohn.killer.cards.Rank.TWO;
+import static dev.dejohn.killer.cards.Suit.HEARTS;
+
+public final class Moves {
+    private static final Rank[] RANKS = Rank.values();
+    private static final int RANK_COUNT = RANKS.length;
+    private static final int RANK_MASK = 15;
+    private static final Depth[] RUN_DEPTHS = {Depth.SINGLE, Depth.PAIR, Depth.TRIPLE};
+    private static final long TWO_OF_HEARTS_VECTOR = TWO.of(HEARTS).getBitVector();
+
+    static final int WORDS = Action.WORDS;
+
+    public static final int LEAD = -2;
+
+    private static final int[][] RANK_PLAYS = new int[RANK_COUNT << 4][];
+
+    static {
+        for (var rank : Rank.values()) {
+            for (int bits = 0; bits <= RANK_MASK; bits++) {
+                int depthCount = Integer.bitCount(bits);
+                int[] codes = new int[depthCount + 1];
+                int n = 0;
+
+                for (int d = 0; d < depthCount; d++) {
+                    if (d == 0 && rank == TWO && (bits & (1 << HEARTS.ordinal())) != 0) {
+                        if (depthCount > 1) codes[n++] = Action.code(rank, Depth.SINGLE, Length.ONE);
+                        codes[n++] = Action.twoOfHeartsCode();
+                    }
+                    else codes[n++] = Action.code(rank, Depth.values()[d], Length.ONE);
+                }
+
+                RANK_PLAYS[(rank.ordinal() << 4) | bits] = Arrays.copyOf(codes, n);
+            }
+        }
+    }
+
+    public static boolean beats(int play, int toBeat) {
+        return Action.beats(play, toBeat);
+    }
+
+    public static long select(long hand, int code) {
+        var play = Action.decodePlay(code);
+        long wilds = hand & CardBits.WILDS;
+
+        if (play instanceof Action.TwoOfHearts) return hand & TWO_OF_HEARTS_VECTOR;
+
+        if (play instanceof Action.Single) {
+            long rankCards = hand & ((long) RANK_MASK << play.rank.offset);
+            long card = rankCards & -rankCards;
+            return (card == 0 || card == TWO_OF_HEARTS_VECTOR) ? wilds & -wilds : card;
+        }
+
+        long cards = 0;
+
+        for (int r = play.rank.ordinal(); r < play.rank.ordinal() + play.length.asInt; r++) {
+            long rankCards = hand & ((long) RANK_MASK << (r << 2));
+            for (int d = 0; d < play.depth.asInt && rankCards != 0; d++, rankCards &= rankCards - 1) cards |= rankCards & -rankCards;
+        }
+
+        int missingCount = play.size() - Long.bitCount(cards);
+        if (missingCount > Long.bitCount(wilds)) return 0;
+
+        for (; missingCount > 0; missingCount--, wilds &= wilds - 1) cards |= wilds & -wilds;
+        return cards;
+    }
+
+    private final long[] seen = new long[WORDS];
+    private final PlayableCache cache;
+
+    public Moves() {
+        this(null);
+    }
+
+    public Moves(PlayableCache cache) {
+        this.cache = cache;
+    }
+
+    public int generate(Cards<?> cards, int[] buffer) {
+        return generate(cards.bitVector, buffer);
+    }
+
+    public int generate(long bitVector, int[] buffer) {
+        return respond(bitVector, LEAD, buffer);
+    }
+
+    public int respond(long bitVector, int toBeat, int[] buffer) {
+        if (cache == null || !cache.get(bitVector, toBeat, seen)) {
+            collect(bitVector, toBeat);
+            if (cache != null) cache.put(bitVector, toBeat, seen);
+        }
+
+        int n = 0;
+        for (int i = 0; i < seen.length; i++) {
+            for (long b = seen[i]; b != 0; b &= b - 1) buffer[n++] = (i << 6) | Long.numberOfTrailingZeros(b);
+            seen[i] = 0;
+        }
+
+        return n;
+    }
+
+    private void collect(long bitVector, int toBeat) {
+        Arrays.fill(seen, 0);
+
+        long naturals = bitVector & CardBits.NATURALS;
+        int wildCount = Math.min(Long.bitCount(bitVector & CardBits.WILDS), NATURAL_COUNT - Long.bitCount(naturals));
+
+        if (wildCount == 0) mark(naturals);
+        else mark(naturals, wildCount);
+        if (toBeat == LEAD) return;
+
+        for (int i = 0; i < seen.length; i++) seen[i] &= Action.BEATERS[toBeat * WORDS + i];
+    }
+
+    private void mark(long naturals, int wildCount) {
+        for (var depth : Depth.values()) {
+            for (int r = 0; r < RANK_COUNT; r++) {
+                int missing = 0;
+
+                for (int l = 1; r + l <= RANK_COUNT; l++) {
+                    missing += Math.max(0, depth.asInt - Long.bitCount((naturals >>> ((r + l - 1) << 2)) & RANK_MASK));
+                    if (missing > wildCount) break;
+
+                    if (l == 1) {
+                        if (depth == Depth.SINGLE && RANKS[r] == TWO) markTwos(naturals, wildCount);
+                        else mark(Action.code(RANKS[r], depth, Length.ONE));
+                    }
+                    else if (l >= Length.THREE.asInt && depth != Depth.QUAD) mark(Action.code(RANKS[r], depth, Length.of(l)));
+
+                    if (depth == Depth.QUAD) break;
+                }
+            }
+        }
+    }
+
+    private void markTwos(long naturals, int wildCount) {
+        long twos = naturals & ((long) RANK_MASK << TWO.offset);
+        int count = Long.bitCount(twos);
+
+        if (count + wildCount >= 2 || twos != TWO_OF_HEARTS_VECTOR) mark(Action.code(TWO, Depth.SINGLE, Length.ONE));
+        // a wild never stands in for the two of hearts
+        if ((twos & TWO_OF_HEARTS_VECTOR) != 0) mark(Action.twoOfHeartsCode());
+    }
+
+    private void mark(long naturals) {
+        for (int r = 0; r < RANK_COUNT; r++) {
+            for (int code : RANK_PLAYS[(r << 4) | (int) (naturals >>> (r << 2)) & RANK_MASK]) mark(code);
+        }
+
+        long histogram = CardBits.histogram(naturals);
+
+        for (var depth : RUN_DEPTHS) {
+            int ranks = CardBits.ranksAtLeast(histogram, depth.asInt);
+
+            for (int l = 2, starts = ranks & ranks >>> 1; (starts &= ranks >>> l) != 0; l++) {
+                for (int s = starts; s != 0; s &= s - 1) mark(Action.code(RANKS[Integer.numberOfTrailingZeros(s)], depth, Length.of(l + 1)));
+            }
+        }
+    }
+
+    private void mark(int code) {
+        seen[code >>> 6] |= 1L << code;
+    }
+}
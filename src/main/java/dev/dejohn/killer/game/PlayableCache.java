@@ -0,0 +1,147 @@
+package dev.dejohn.killer.game;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+public final class PlayableCache {
+    private static final int WORDS = Moves.WORDS;
+    private static final int WAYS = 8;
+    private static final int STRIPES = 64;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + 1 + WORDS * Long.BYTES;
+
+    public record Stats(long hits, long misses, long evictions, int capacity) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    public static PlayableCache withBudget(long bytes) {
+        long sets = Math.max(1, bytes / ((long) ENTRY_BYTES * WAYS));
+        return new PlayableCache((int) Math.min(Long.highestOneBit(sets), 1 << 24));
+    }
+
+    private final int setMask;
+    private final long[] hands;
+    private final int[] keys;
+    private final long[] sets;
+    private final byte[] referenced;
+    private final byte[] clock;
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private PlayableCache(int setCount) {
+        int capacity = setCount * WAYS;
+
+        setMask = setCount - 1;
+        hands = new long[capacity];
+        keys = new int[capacity];
+        sets = new long[capacity * WORDS];
+        referenced = new byte[capacity];
+        clock = new byte[setCount];
+
+        for (int i = 0; i < STRIPES; i++) locks[i] = new StampedLock();
+    }
+
+    public int capacity() {
+        return hands.length;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), capacity());
+    }
+
+    // out is only written on a hit, from a read-locked slot; the lookup itself is optimistic and a found slot is
+    // locked by converting the optimistic stamp, falling back to a locked lookup when a writer got in first
+    boolean get(long hand, int toBeat, long[] out) {
+        int set = set(hand, toBeat), key = key(toBeat);
+        var lock = locks[set & (STRIPES - 1)];
+
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(set, hand, key);
+
+        if (slot < 0 && lock.validate(stamp)) {
+            misses.increment();
+            return false;
+        }
+
+        if (slot < 0 || (stamp = lock.tryConvertToReadLock(stamp)) == 0) {
+            stamp = lock.readLock();
+            slot = find(set, hand, key);
+        }
+
+        try {
+            if (slot < 0) {
+                misses.increment();
+                return false;
+            }
+
+            System.arraycopy(sets, slot * WORDS, out, 0, WORDS);
+            referenced[slot] = 1;
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+
+        hits.increment();
+        return true;
+    }
+
+    void put(long hand, int toBeat, long[] set) {
+        int index = set(hand, toBeat), key = key(toBeat);
+        var lock = locks[index & (STRIPES - 1)];
+
+        long stamp = lock.writeLock();
+        try {
+            int base = index * WAYS, slot = -1;
+
+            for (int w = 0; w < WAYS; w++) {
+                int i = base + w;
+                if (keys[i] == 0 || (keys[i] == key && hands[i] == hand)) {
+                    slot = i;
+                    break;
+                }
+            }
+
+            if (slot < 0) {
+                int w = clock[index];
+                while (referenced[base + w] != 0) {
+                    referenced[base + w] = 0;
+                    w = (w + 1) & (WAYS - 1);
+                }
+
+                slot = base + w;
+                clock[index] = (byte) ((w + 1) & (WAYS - 1));
+                evictions.increment();
+            }
+
+            hands[slot] = hand;
+            keys[slot] = key;
+            referenced[slot] = 0;
+            System.arraycopy(set, 0, sets, slot * WORDS, WORDS);
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int find(int set, long hand, int key) {
+        for (int i = set * WAYS; i < (set + 1) * WAYS; i++) {
+            if (keys[i] == key && hands[i] == hand) return i;
+        }
+
+        return -1;
+    }
+
+    private int set(long hand, int toBeat) {
+        long h = (hand ^ ((long) toBeat << 56) ^ toBeat) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & setMask;
+    }
+
+    private static int key(int toBeat) {
+        return toBeat - Moves.LEAD + 1;
+    }
+}
@@ -0,0 +1,301 @@
+package dev.dejohn.killer.game;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+public final class Replay implements AutoCloseable {
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    public interface Visitor {
+        void onGame(Header header);
+        void onAction(int seat, int code);
+    }
+
+    public static final class Header {
+        private long offset;
+        private long seed;
+        private long deck;
+        private int seats;
+        private final int[] players = new int[GameLog.MAX_SEATS];
+        private final long[] hands = new long[GameLog.MAX_SEATS];
+
+        public long offset() {
+            return offset;
+        }
+
+        // the deck's cards seeded with this deal the same hands again, in seat order
+        public long seed() {
+            return seed;
+        }
+
+        public long deck() {
+            return deck;
+        }
+
+        public int seats() {
+            return seats;
+        }
+
+        public int player(int seat) {
+            return players[seat];
+        }
+
+        public long hand(int seat) {
+            return hands[seat];
+        }
+    }
+
+    public static final class State {
+        private int seats;
+        private final int[] players = new int[GameLog.MAX_SEATS];
+        private final long[] hands = new long[GameLog.MAX_SEATS];
+        private final long[] played = new long[GameLog.MAX_SEATS];
+        private final boolean[] active = new boolean[GameLog.MAX_SEATS];
+        private final int[] positions = new int[GameLog.MAX_SEATS];
+        private long pile;
+        private int toBeat;
+        private int activeCount;
+        private int inCount;
+        private int finishedCount;
+        private int actions;
+
+        private void reset(Header header) {
+            seats = header.seats;
+            pile = 0;
+            toBeat = Moves.LEAD;
+            inCount = 0;
+            finishedCount = 0;
+            actions = 0;
+
+            for (int s = 0; s < seats; s++) {
+                players[s] = header.players[s];
+                hands[s] = header.hands[s];
+                played[s] = 0;
+                positions[s] = -1;
+                active[s] = hands[s] != 0;
+                if (active[s]) inCount++;
+            }
+
+            activeCount = inCount;
+        }
+
+        private void apply(int seat, int code) {
+            actions++;
+
+            if (code == Action.PASS_CODE) deactivate(seat);
+            else {
+                long cards = Moves.select(hands[seat], code);
+
+                hands[seat] ^= cards;
+                played[seat] |= cards;
+                pile |= cards;
+                toBeat = code;
+
+                if (hands[seat] == 0) {
+                    deactivate(seat);
+                    inCount--;
+                    positions[seat] = finishedCount++;
+                }
+            }
+
+            if (inCount <= 1) {
+                for (int s = 0; s < seats; s++) if (hands[s] != 0 && positions[s] < 0) positions[s] = finishedCount++;
+            }
+            else if (activeCount == 0) {
+                for (int s = 0; s < seats; s++) active[s] = hands[s] != 0;
+                activeCount = inCount;
+                toBeat = Moves.LEAD;
+            }
+        }
+
+        private void deactivate(int seat) {
+            if (!active[seat]) return;
+            active[seat] = false;
+            activeCount--;
+        }
+
+        public int seats() {
+            return seats;
+        }
+
+        public int player(int seat) {
+            return players[seat];
+        }
+
+        public long hand(int seat) {
+            return hands[seat];
+        }
+
+        public long played(int seat) {
+            return played[seat];
+        }
+
+        public boolean isActive(int seat) {
+            return active[seat];
+        }
+
+        public int position(int seat) {
+            return positions[seat];
+        }
+
+        public long pile() {
+            return pile;
+        }
+
+        public int toBeat() {
+            return toBeat;
+        }
+
+        public int actions() {
+            return actions;
+        }
+
+        public boolean isOver() {
+            return inCount <= 1;
+        }
+    }
+
+    public static Replay open(Path path) throws IOException {
+        var arena = Arena.ofShared();
+
+        try (var channel = FileChannel.open(path, READ)) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (segment.byteSize() < Integer.BYTES || segment.get(INT, 0) != GameLog.MAGIC) throw new IOException("not a game log: " + path);
+            return new Replay(arena, segment);
+        }
+        catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private long[] index;
+
+    private Replay(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+    }
+
+    public long byteSize() {
+        return segment.byteSize();
+    }
+
+    public void scan(Visitor visitor) {
+        var header = new Header();
+        long offset = Integer.BYTES;
+
+        while (offset < segment.byteSize()) {
+            byte tag = segment.get(BYTE, offset);
+
+            if (tag == GameLog.GAME) {
+                offset = readHeader(offset, header);
+                visitor.onGame(header);
+            }
+            else {
+                byte code = segment.get(BYTE, offset + 1);
+                visitor.onAction(tag, code == GameLog.PASS ? Action.PASS_CODE : code & 0xFF);
+                offset += 2;
+            }
+        }
+    }
+
+    private long readHeader(long offset, Header header) {
+        header.offset = offset;
+        header.seed = segment.get(LONG, offset + 1);
+        header.deck = segment.get(LONG, offset + 9);
+        header.seats = segment.get(BYTE, offset + 17) & 0xFF;
+        offset += 18;
+
+        for (int s = 0; s < header.seats; s++, offset += 9) {
+            header.players[s] = segment.get(BYTE, offset) & 0xFF;
+            header.hands[s] = segment.get(LONG, offset + 1);
+        }
+
+        return offset;
+    }
+
+    public int games() {
+        return index().length;
+    }
+
+    public long actions() {
+        long[] count = new long[1];
+
+        scan(new Visitor() {
+            @Override
+            public void onGame(Header header) {}
+
+            @Override
+            public void onAction(int seat, int code) {
+                count[0]++;
+            }
+        });
+
+        return count[0];
+    }
+
+    private long[] index() {
+        if (index != null) return index;
+
+        long[] offsets = new long[16];
+        int n = 0;
+
+        for (long offset = Integer.BYTES; offset < segment.byteSize(); ) {
+            if (segment.get(BYTE, offset) == GameLog.GAME) {
+                if (n == offsets.length) offsets = Arrays.copyOf(offsets, n * 2);
+                offsets[n++] = offset;
+                offset += 18 + (segment.get(BYTE, offset + 17) & 0xFF) * 9L;
+            }
+            else offset += 2;
+        }
+
+        return index = Arrays.copyOf(offsets, n);
+    }
+
+    public Header header(int game) {
+        var header = new Header();
+        readHeader(index()[game], header);
+        return header;
+    }
+
+    public State state(int game) {
+        return state(game, Integer.MAX_VALUE, new State());
+    }
+
+    public State state(int game, int actions) {
+        return state(game, actions, new State());
+    }
+
+    public State state(int game, int actions, State state) {
+        var header = new Header();
+        long offset = readHeader(index()[game], header);
+        state.reset(header);
+
+        for (; offset < segment.byteSize() && state.actions < actions; offset += 2) {
+            byte seat = segment.get(BYTE, offset);
+            if (seat == GameLog.GAME) break;
+
+            byte code = segment.get(BYTE, offset + 1);
+            state.apply(seat, code == GameLog.PASS ? Action.PASS_CODE : code & 0xFF);
+        }
+
+        return state;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
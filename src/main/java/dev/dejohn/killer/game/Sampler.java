@@ -0,0 +1,137 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.cards.CardBits;
+
+import java.util.SplittableRandom;
+
+// deals hidden cards into hands of known sizes, writing hands[from, to) with counts[from, to) cards each. cards left
+// over once every hand is full stay undealt and a pool too small for the counts leaves hands short
+public final class Sampler {
+    private static final int CARDS = Long.SIZE;
+
+    public static final int DEFAULT_ATTEMPTS = 64;
+
+    private final SplittableRandom random;
+    private final int[] capacity = new int[CARDS];
+    private final double[] bounds = new double[CARDS];
+    private final int[] cards = new int[CARDS];
+    private final int[] order = new int[CARDS];
+    private long pool = 0;
+    private int size = 0;
+
+    public Sampler() {
+        this(new SplittableRandom());
+    }
+
+    public Sampler(SplittableRandom random) {
+        this.random = random;
+    }
+
+    // uniform over every split of the pool into the given sizes
+    public void deal(long pool, int[] counts, long[] hands, int from, int to) {
+        int size = indices(pool), dealt = 0;
+        long taken = 0;
+
+        for (int h = from; h < to; h++) {
+            int count = Math.min(counts[h], size - dealt);
+            long hand = 0;
+
+            // the last hand of an exact deal just takes the rest
+            if (dealt + count == size) {
+                hands[h] = pool & ~taken;
+                taken = pool;
+                dealt = size;
+                continue;
+            }
+
+            // a partial Fisher-Yates shuffle, whose prefix is uniform whatever order the previous deal left behind
+            for (int end = dealt + count; dealt < end; dealt++) {
+                int j = dealt + random.nextInt(size - dealt), card = cards[j];
+                cards[j] = cards[dealt];
+                cards[dealt] = card;
+                hand |= 1L << card;
+            }
+
+            hands[h] = hand;
+            taken |= hand;
+        }
+    }
+
+    private int indices(long pool) {
+        if (pool != this.pool) {
+            this.pool = pool;
+            this.size = CardBits.indices(pool, cards);
+        }
+        return size;
+    }
+
+    // uniform over the splits in which no hand holds any of its excluded cards, by rejection; false, with the last
+    // attempt left in hands, when none of the attempts satisfied every exclusion
+    public boolean deal(long pool, int[] counts, long[] excluded, long[] hands, int from, int to, int attempts) {
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            deal(pool, counts, hands, from, to);
+
+            boolean isValid = true;
+            for (int h = from; h < to && isValid; h++) isValid = (hands[h] & excluded[h]) == 0;
+            if (isValid) return true;
+        }
+
+        return false;
+    }
+
+    // every card, in random order, goes to a hand with probability proportional to its weight times the room left in
+    // that hand, weights[(h - from) * 64 + card] being the weight of hands[h]. this favours likely holders without
+    // rejecting anything: a card every hand with room gives zero weight goes to one of them by room alone, so the
+    // sizes always come out exact
+    public void deal(long pool, int[] counts, double[] weights, long[] hands, int from, int to) {
+        deal(pool, counts, from, weights, hands, from, to);
+    }
+
+    // the same, weighted by what a player believes about its opponents; opponent o is written to hands[offset + o]
+    public void deal(Beliefs beliefs, long[] hands, int offset) {
+        deal(beliefs.unseenBits(), beliefs.counts, 0, beliefs.weights, hands, offset, offset + beliefs.opponentCount());
+    }
+
+    private void deal(long pool, int[] counts, int first, double[] weights, long[] hands, int from, int to) {
+        int n = to - from, room = 0;
+        if (n > CARDS) throw new IllegalArgumentException();
+
+        long constrained = 0;
+        for (int i = 0; i < n; i++) {
+            hands[from + i] = 0;
+            capacity[i] = counts[first + i];
+            room += counts[first + i];
+
+            if (counts[first + i] == 0) continue;
+            for (long c = pool; c != 0; c &= c - 1) {
+                if (weights[i * CARDS + Long.numberOfTrailingZeros(c)] == 0) constrained |= c & -c;
+            }
+        }
+
+        // cards some hand cannot take go first, while the hands that can have room for them, each group in random order
+        int split = CardBits.indices(constrained, order), size = split;
+        for (long c = pool & ~constrained; c != 0; c &= c - 1) order[size++] = Long.numberOfTrailingZeros(c);
+
+        for (int k = 0; k < size && room > 0; k++, room--) {
+            int end = k < split ? split : size;
+            int j = k + random.nextInt(end - k), card = order[j];
+            order[j] = order[k];
+
+            double total = 0;
+            for (int i = 0; i < n; i++) bounds[i] = total += weights[i * CARDS + card] * capacity[i];
+
+            int i = 0;
+            if (total > 0) {
+                // counted rather than searched, the hand drawn is too random for a branch to predict
+                double x = random.nextDouble() * total;
+                for (int b = 0; b < n - 1; b++) i += x >= bounds[b] ? 1 : 0;
+                // rounding can run x past the last hand with room
+                while (capacity[i] == 0) i--;
+            }
+            else for (int x = random.nextInt(room); (x -= capacity[i]) >= 0; ) i++;
+
+            hands[from + i] |= 1L << card;
+            capacity[i]--;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Deck;
+
+import java.util.Set;
+
+public final class Simulation {
+    public record Result(long games, long nanos) {
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games in %.3f s (%.1f games/s)", games, nanos / 1e9, gamesPerSecond());
+        }
+    }
+
+    public static Result run(Deck deck, Set<? extends Brain> brains, long games) {
+        return run(Game.headless(deck, brains), games);
+    }
+
+    public static Result run(Game game, long games) {
+        long start = System.nanoTime();
+        for (long i = 0; i < games; i++) game.start();
+        return new Result(games, System.nanoTime() - start);
+    }
+
+    private Simulation() {}
+}
@@ -0,0 +1,303 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.cards.CardBits;
+import dev.dejohn.killer.cards.Rank;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static dev.dejohn.killer.cards.Rank.THREE;
+import static dev.dejohn.killer.cards.Rank.TWO;
+import static dev.dejohn.killer.cards.Suit.CLUBS;
+import static dev.dejohn.killer.cards.Suit.HEARTS;
+import static java.nio.file.StandardOpenOption.*;
+
+// two-player endgames between natural hands of at most maxCards each, solved once and stored one byte per position.
+// only rank counts, the two of hearts and the three of clubs (whose holder has to lead a three) decide what a hand can
+// play, so hands are ranked as count vectors and plays that no small hand can beat share one class. file: MAGIC, maxCards, profile count, class count, the class of every
+// play code, then the positions indexed by (hand, other, class, other active); all values are little-endian
+public final class Tablebase implements AutoCloseable {
+    public static final int MAGIC = 0x4B544232;
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final int MAX_CARDS = 3;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private static final long TWO_OF_HEARTS_VECTOR = TWO.of(HEARTS).getBitVector();
+    private static final long THREE_OF_CLUBS_VECTOR = THREE.of(CLUBS).getBitVector();
+    // the cards counted by each component of a profile: the three of clubs, the other threes, the four up to the ace,
+    // the other twos and the two of hearts
+    private static final long[] COMPONENT_CARDS = new long[Rank.values().length + 2];
+    private static final int COMPONENTS = COMPONENT_CARDS.length;
+    private static final int[] LIMITS = new int[COMPONENTS];
+    private static final int LEAD_CLASS = 0;
+    private static final int UNBEATABLE = 1;
+    private static final int PASS_MOVE = 1;
+    private static final int WINS = 0x80;
+    private static final int MOVE_MASK = 0x7F;
+    private static final long DATA = (4 * Integer.BYTES + Action.PLAY_COUNT + 7) & ~7L;
+
+    static {
+        COMPONENT_CARDS[0] = THREE_OF_CLUBS_VECTOR;
+        for (var rank : Rank.values()) COMPONENT_CARDS[rank.ordinal() + 1] = 15L << rank.offset;
+        COMPONENT_CARDS[1] &= ~THREE_OF_CLUBS_VECTOR;
+        COMPONENT_CARDS[COMPONENTS - 2] &= ~TWO_OF_HEARTS_VECTOR;
+        COMPONENT_CARDS[COMPONENTS - 1] = TWO_OF_HEARTS_VECTOR;
+
+        for (int i = 0; i < COMPONENTS; i++) LIMITS[i] = Long.bitCount(COMPONENT_CARDS[i]);
+    }
+
+    private static final class Layout {
+        private final int maxCards;
+        private final int[][] ways;
+        private final int[] start;
+        private final int profiles;
+        private final long[] hands;
+        private final byte[] classOf = new byte[Action.PLAY_COUNT];
+        private final int[] codes;
+        private final int classes;
+
+        private Layout(int maxCards) {
+            this.maxCards = maxCards;
+            this.ways = new int[COMPONENTS + 1][maxCards + 1];
+            this.start = new int[maxCards + 2];
+
+            ways[COMPONENTS][0] = 1;
+            for (int i = COMPONENTS - 1; i >= 0; i--) {
+                for (int s = 0; s <= maxCards; s++) {
+                    for (int x = 0; x <= Math.min(LIMITS[i], s); x++) ways[i][s] += ways[i + 1][s - x];
+                }
+            }
+            for (int s = 0; s <= maxCards; s++) start[s + 1] = start[s] + ways[0][s];
+
+            this.profiles = start[maxCards + 1];
+            this.hands = new long[profiles];
+            enumerate(0, 0, 0);
+
+            int[] codes = new int[Action.PLAY_COUNT + 2];
+            int n = 2;
+            codes[LEAD_CLASS] = Moves.LEAD;
+            codes[UNBEATABLE] = MISSING;
+
+            for (int t = 0; t < Action.PLAY_COUNT; t++) {
+                boolean isClass = Action.decodePlay(t).size() <= maxCards;
+                for (int p = 0; p < Action.PLAY_COUNT && !isClass; p++) isClass = Action.decodePlay(p).size() <= maxCards && Moves.beats(p, t);
+
+                if (isClass) codes[n] = t;
+                classOf[t] = (byte) (isClass ? n++ : UNBEATABLE);
+            }
+
+            if (n > MOVE_MASK) throw new IllegalArgumentException();
+
+            this.codes = Arrays.copyOf(codes, n);
+            this.classes = n;
+        }
+
+        private void enumerate(int component, int size, long hand) {
+            if (component == COMPONENTS) {
+                hands[rank(hand)] = hand;
+                return;
+            }
+
+            long cards = 0, rest = COMPONENT_CARDS[component];
+            for (int x = 0; x <= LIMITS[component] && size + x <= maxCards; x++, cards |= rest & -rest, rest &= rest - 1) {
+                enumerate(component + 1, size + x, hand | cards);
+            }
+        }
+
+        private int rank(long hand) {
+            int size = Long.bitCount(hand);
+            if (size > maxCards || (hand & CardBits.WILDS) != 0) return -1;
+
+            int index = start[size], remaining = size;
+            for (int i = 0; i < COMPONENTS; i++) {
+                int count = count(hand, i);
+                for (int x = 0; x < count; x++) index += ways[i + 1][remaining - x];
+                remaining -= count;
+            }
+
+            return index;
+        }
+
+        private static int count(long hand, int component) {
+            return Long.bitCount(hand & COMPONENT_CARDS[component]);
+        }
+
+        private boolean isCompatible(int a, int b) {
+            for (int i = 0; i < COMPONENTS; i++) if (count(hands[a], i) + count(hands[b], i) > LIMITS[i]) return false;
+            return true;
+        }
+
+        private long entries() {
+            return (long) profiles * profiles * classes * 2;
+        }
+
+        private long index(int hand, int other, int cls, boolean isOtherActive) {
+            return (((long) hand * profiles + other) * classes + cls) * 2 + (isOtherActive ? 1 : 0);
+        }
+    }
+
+    public static void generate(Path path, int maxCards) throws IOException {
+        if (maxCards < 1 || maxCards > MAX_CARDS) throw new IllegalArgumentException();
+
+        var layout = new Layout(maxCards);
+        if (layout.entries() > Integer.MAX_VALUE - 8) throw new IllegalArgumentException();
+
+        byte[] values = new byte[(int) layout.entries()];
+        var moves = new Moves();
+        int[] buffer = new int[Action.PLAY_COUNT];
+
+        // every play sheds cards and passing twice starts a round with the same cards, so each layer of total card
+        // count only depends on smaller layers and, within it, on leads before inactive before active positions
+        for (int total = 2; total <= 2 * maxCards; total++) {
+            for (int phase = 0; phase < 3; phase++) {
+                for (int size = Math.max(1, total - maxCards); size <= Math.min(maxCards, total - 1); size++) {
+                    for (int a = layout.start[size]; a < layout.start[size + 1]; a++) {
+                        for (int b = layout.start[total - size]; b < layout.start[total - size + 1]; b++) {
+                            if (!layout.isCompatible(a, b)) continue;
+
+                            if (phase == 0) solve(layout, values, moves, buffer, a, b, LEAD_CLASS, true);
+                            else for (int cls = UNBEATABLE; cls < layout.classes; cls++) solve(layout, values, moves, buffer, a, b, cls, phase == 2);
+                        }
+                    }
+                }
+            }
+        }
+
+        try (var channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate((int) DATA).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(maxCards).putInt(layout.profiles).putInt(layout.classes).put(layout.classOf)
+                .position((int) DATA).flip();
+
+            while (header.hasRemaining()) channel.write(header);
+            for (var data = ByteBuffer.wrap(values); data.hasRemaining(); ) channel.write(data);
+        }
+    }
+
+    private static void solve(Layout layout, byte[] values, Moves moves, int[] buffer, int a, int b, int cls, boolean isOtherActive) {
+        long hand = layout.hands[a];
+        int toBeat = layout.codes[cls];
+        int n = cls == LEAD_CLASS ? leads(moves, hand, buffer) : cls == UNBEATABLE ? 0 : moves.respond(hand, toBeat, buffer);
+        int move = 0;
+        boolean wins = false;
+
+        for (int i = 0; i < n && !wins; i++) {
+            int play = layout.classOf[buffer[i]];
+            long rest = hand & ~Moves.select(hand, buffer[i]);
+            int r = layout.rank(rest);
+
+            if (move == 0) move = play;
+            if (rest == 0) wins = true;
+            else if (isOtherActive) wins = (values[(int) layout.index(b, r, play, true)] & WINS) == 0;
+            else wins = (values[(int) layout.index(r, b, play, false)] & WINS) != 0;
+
+            if (wins) move = play;
+        }
+
+        if (!wins && cls != LEAD_CLASS) {
+            if (isOtherActive) wins = (values[(int) layout.index(b, a, cls, false)] & WINS) == 0;
+            else wins = (values[(int) layout.index(a, b, LEAD_CLASS, true)] & WINS) != 0;
+
+            if (wins || move == 0) move = PASS_MOVE;
+        }
+
+        values[(int) layout.index(a, b, cls, isOtherActive)] = (byte) ((wins ? WINS : 0) | move);
+    }
+
+    // as in Game, whoever holds the three of clubs has to lead a three
+    private static int leads(Moves moves, long hand, int[] buffer) {
+        int n = moves.generate(hand, buffer);
+        if ((hand & THREE_OF_CLUBS_VECTOR) == 0) return n;
+
+        int m = 0;
+        for (int i = 0; i < n; i++) if (Action.decodePlay(buffer[i]).rank == THREE) buffer[m++] = buffer[i];
+        return m;
+    }
+
+    public static Tablebase open(Path path) throws IOException {
+        var arena = Arena.ofShared();
+
+        try (var channel = FileChannel.open(path, READ)) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (segment.byteSize() < DATA || segment.get(INT, 0) != MAGIC) throw new IOException("not a tablebase: " + path);
+
+            int maxCards = segment.get(INT, 4);
+            if (maxCards < 1 || maxCards > MAX_CARDS) throw new IOException("not a tablebase: " + path);
+
+            var layout = new Layout(maxCards);
+            if (segment.get(INT, 8) != layout.profiles || segment.get(INT, 12) != layout.classes || segment.byteSize() != DATA + layout.entries()) {
+                throw new IOException("corrupt tablebase: " + path);
+            }
+
+            return new Tablebase(arena, segment, layout);
+        }
+        catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final Layout layout;
+
+    private Tablebase(Arena arena, MemorySegment segment, Layout layout) {
+        this.arena = arena;
+        this.segment = segment;
+        this.layout = layout;
+    }
+
+    public int maxCards() {
+        return layout.maxCards;
+    }
+
+    public boolean covers(long hand, long other) {
+        return hand != 0 && other != 0 && layout.rank(hand) >= 0 && layout.rank(other) >= 0;
+    }
+
+    // the winning move, or the first legal one when every move loses; MISSING when the position is not covered
+    public int move(long hand, long other, int toBeat, boolean isOtherActive) {
+        int entry = entry(hand, other, toBeat, isOtherActive);
+        if (entry == 0) return MISSING;
+
+        int move = entry & MOVE_MASK;
+        return move == PASS_MOVE ? Action.PASS_CODE : layout.codes[move];
+    }
+
+    public boolean wins(long hand, long other, int toBeat, boolean isOtherActive) {
+        int entry = entry(hand, other, toBeat, isOtherActive);
+        if (entry == 0) throw new IllegalArgumentException();
+        return (entry & WINS) != 0;
+    }
+
+    private int entry(long hand, long other, int toBeat, boolean isOtherActive) {
+        if (!covers(hand, other) || (hand & other) != 0) return 0;
+
+        int cls = toBeat == Moves.LEAD ? LEAD_CLASS : layout.classOf[toBeat];
+        return segment.get(BYTE, DATA + layout.index(layout.rank(hand), layout.rank(other), cls, isOtherActive || cls == LEAD_CLASS)) & 0xFF;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: Tablebase <file> <max cards per hand>");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        generate(Path.of(args[0]), Integer.parseInt(args[1]));
+        System.out.printf("%s generated in %.1f s%n", args[0], (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,131 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Deck;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+public final class Tournament {
+    private static final int BATCHES = 256;
+
+    public record Result(long games, long[][] positions) {
+        public int seats() {
+            return positions.length;
+        }
+
+        public long wins(int seat) {
+            return positions[seat][0];
+        }
+
+        public long count(int seat, int position) {
+            return positions[seat][position];
+        }
+
+        public double averagePosition(int seat) {
+            long sum = 0;
+            for (int p = 0; p < positions[seat].length; p++) sum += p * positions[seat][p];
+            return games == 0 ? 0 : (double) sum / games;
+        }
+
+        @Override
+        public String toString() {
+            var builder = new StringBuilder(games + " games");
+
+            for (int seat = 0; seat < seats(); seat++) {
+                builder.append(String.format("%n%d: %d wins, average position %.3f, %s",
+                    seat, wins(seat), averagePosition(seat) + 1, Arrays.toString(positions[seat])));
+            }
+
+            return builder.toString();
+        }
+    }
+
+    public static Result run(Deck deck, List<? extends Supplier<? extends Brain>> brains, long games) {
+        return run(deck, brains, games, new SplittableRandom().nextLong(), ForkJoinPool.commonPool());
+    }
+
+    public static Result run(Deck deck, List<? extends Supplier<? extends Brain>> brains, long games, long seed) {
+        return run(deck, brains, games, seed, ForkJoinPool.commonPool());
+    }
+
+    public static Result run(Deck deck, List<? extends Supplier<? extends Brain>> brains, long games, long seed, ForkJoinPool pool) {
+        if (brains.size() < 2) throw new IllegalArgumentException();
+
+        // the first batch's brains are made here, so equal brains are rejected before anything is forked
+        long chunk = Math.max(1, games / BATCHES);
+        var first = seat(brains);
+        var positions = pool.invoke(new Batch(deck, List.copyOf(brains), first, new SplittableRandom(seed), 0, games, chunk));
+
+        return new Result(games, positions);
+    }
+
+    private static Brain[] seat(List<? extends Supplier<? extends Brain>> brains) {
+        var seated = new Brain[brains.size()];
+        var table = new HashSet<Brain>();
+
+        for (int seat = 0; seat < seated.length; seat++) table.add(seated[seat] = brains.get(seat).get());
+        if (table.size() < seated.length) throw new IllegalArgumentException();
+
+        return seated;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Batch extends RecursiveTask<long[][]> {
+        private final Deck deck;
+        private final List<? extends Supplier<? extends Brain>> brains;
+        private final Brain[] seated;
+        private final SplittableRandom random;
+        private final long from;
+        private final long to;
+        private final long chunk;
+
+        // seated is null for batches that make their own brains
+        private Batch(Deck deck, List<? extends Supplier<? extends Brain>> brains, Brain[] seated, SplittableRandom random, long from, long to, long chunk) {
+            this.deck = deck;
+            this.brains = brains;
+            this.seated = seated;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= chunk) return play();
+
+            long mid = (from + to) >>> 1;
+            var right = new Batch(deck, brains, null, random.split(), mid, to, chunk);
+            right.fork();
+
+            var positions = new Batch(deck, brains, seated, random, from, mid, chunk).compute();
+            var other = right.join();
+
+            for (int seat = 0; seat < positions.length; seat++) {
+                for (int p = 0; p < positions[seat].length; p++) positions[seat][p] += other[seat][p];
+            }
+
+            return positions;
+        }
+
+        private long[][] play() {
+            int seats = brains.size();
+            var positions = new long[seats][seats];
+            var seated = this.seated != null ? this.seated : seat(brains);
+
+            var game = Game.headless(deck.withRandom(random.split()), new LinkedHashSet<>(Arrays.asList(seated)));
+
+            for (long i = from; i < to; i++) {
+                game.start();
+                for (int seat = 0; seat < seats; seat++) positions[seat][game.positionOf(seated[seat])]++;
+            }
+
+            return positions;
+        }
+    }
+
+    private Tournament() {}
+}
@@ -0,0 +1,192 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.game.TrainingLog.Column;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+// reads the columns written by TrainingLog one chunk at a time; a column is only inflated when asked for
+public final class TrainingData implements AutoCloseable {
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final int COLUMNS = TrainingLog.COLUMNS.length;
+    private static final int HEADER = Integer.BYTES * (2 + COLUMNS);
+
+    public static boolean isActive(byte opponent) {
+        return (opponent & TrainingLog.ACTIVE) != 0;
+    }
+
+    public static int cardCount(byte opponent) {
+        return opponent & TrainingLog.ACTIVE - 1;
+    }
+
+    public static TrainingData open(Path path) throws IOException {
+        var arena = Arena.ofShared();
+
+        try (var channel = FileChannel.open(path, READ)) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (segment.byteSize() < Integer.BYTES || segment.get(INT, 0) != TrainingLog.MAGIC) throw new IOException("not a training log: " + path);
+            return new TrainingData(arena, segment, path);
+        }
+        catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final Inflater inflater = new Inflater();
+    private final int[] rows;
+    private final int[] opponents;
+    private final long[] offsets;
+    private final long total;
+    private byte[] compressed = new byte[1 << 16];
+
+    private TrainingData(Arena arena, MemorySegment segment, Path path) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+
+        int chunks = 0;
+        var rows = new int[16];
+        var opponents = new int[16];
+        var offsets = new long[16 * (COLUMNS + 1)];
+        long offset = Integer.BYTES, total = 0;
+
+        while (offset < segment.byteSize()) {
+            if (offset + HEADER > segment.byteSize()) throw new IOException("truncated training log: " + path);
+
+            if (chunks == rows.length) {
+                rows = Arrays.copyOf(rows, chunks * 2);
+                opponents = Arrays.copyOf(opponents, chunks * 2);
+                offsets = Arrays.copyOf(offsets, chunks * 2 * (COLUMNS + 1));
+            }
+
+            rows[chunks] = segment.get(INT, offset);
+            opponents[chunks] = segment.get(INT, offset + Integer.BYTES);
+            total += rows[chunks];
+
+            long start = offset + HEADER;
+            for (int c = 0; c < COLUMNS; c++) {
+                offsets[chunks * (COLUMNS + 1) + c] = start;
+                start += segment.get(INT, offset + Integer.BYTES * (2 + c));
+            }
+            offsets[chunks * (COLUMNS + 1) + COLUMNS] = start;
+
+            if (start > segment.byteSize()) throw new IOException("truncated training log: " + path);
+            offset = start;
+            chunks++;
+        }
+
+        this.rows = Arrays.copyOf(rows, chunks);
+        this.opponents = Arrays.copyOf(opponents, chunks);
+        this.offsets = Arrays.copyOf(offsets, chunks * (COLUMNS + 1));
+        this.total = total;
+    }
+
+    public int chunks() {
+        return rows.length;
+    }
+
+    public long rows() {
+        return total;
+    }
+
+    public int rows(int chunk) {
+        return rows[chunk];
+    }
+
+    public int opponents(int chunk) {
+        return opponents[chunk];
+    }
+
+    // the raw values of one column, row after row, each column.width(opponents) bytes little-endian
+    public byte[] bytes(int chunk, Column column) {
+        int count = rows[chunk], width = column.width(opponents[chunk]);
+        byte[] planes = inflate(chunk, column, count * width);
+        if (width == 1) return planes;
+
+        byte[] values = new byte[planes.length];
+        for (int b = 0; b < width; b++) {
+            for (int r = 0; r < count; r++) values[r * width + b] = planes[b * count + r];
+        }
+
+        return values;
+    }
+
+    // GAME, SEAT, HAND, PILE and POSITION as one value per row; TO_BEAT and CHOICE as play codes, Moves.LEAD or
+    // Action.PASS_CODE
+    public long[] longs(int chunk, Column column) {
+        int count = rows[chunk], width = column.width(opponents[chunk]);
+        if (width > Long.BYTES) throw new IllegalArgumentException();
+
+        byte[] planes = inflate(chunk, column, count * width);
+        long[] values = new long[count];
+
+        for (int b = 0; b < width; b++) {
+            for (int r = 0; r < count; r++) values[r] |= (planes[b * count + r] & 0xFFL) << (b << 3);
+        }
+
+        if (column == Column.TO_BEAT || column == Column.CHOICE) for (int r = 0; r < count; r++) values[r] -= 2;
+        return values;
+    }
+
+    // the legal options of every row as Moves.WORDS words over play codes
+    public long[] options(int chunk) {
+        int count = rows[chunk];
+        byte[] planes = inflate(chunk, Column.OPTIONS, count * Column.OPTIONS.width(0));
+        long[] values = new long[count * Moves.WORDS];
+
+        for (int w = 0; w < Moves.WORDS; w++) {
+            for (int b = 0; b < Long.BYTES; b++) {
+                int plane = (w * Long.BYTES + b) * count;
+                for (int r = 0; r < count; r++) values[r * Moves.WORDS + w] |= (planes[plane + r] & 0xFFL) << (b << 3);
+            }
+        }
+
+        return values;
+    }
+
+    private byte[] inflate(int chunk, Column column, int length) {
+        int i = chunk * (COLUMNS + 1) + column.ordinal();
+        int size = (int) (offsets[i + 1] - offsets[i]);
+        byte[] values = new byte[length];
+
+        // Inflater cannot read buffers of a closeable shared arena, so the compressed bytes are copied out first
+        if (compressed.length < size) compressed = new byte[Math.max(size, compressed.length * 2)];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offsets[i], compressed, 0, size);
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, size);
+
+        try {
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(values, n, length - n);
+                if (read == 0 && inflater.needsInput()) break;
+                n += read;
+            }
+            if (n != length) throw new IllegalStateException("corrupt " + column + " column in chunk " + chunk);
+        }
+        catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt " + column + " column in chunk " + chunk, e);
+        }
+
+        return values;
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        arena.close();
+    }
+}
@@ -0,0 +1,202 @@
+package dev.dejohn.killer.game;
+
+import dev.dejohn.killer.Brain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static java.nio.file.StandardOpenOption.*;
+
+// one row per decision, written in chunks of whole games. file: MAGIC, then per chunk the row count, opponent count and
+// the compressed length of every column, followed by the columns. a column stores its values little-endian and split
+// into byte planes (every row's first byte, then every row's second byte...) before deflating, so the mostly constant
+// high bytes cost next to nothing; all values are little-endian
+public final class TrainingLog implements GameListener, AutoCloseable {
+    public static final int MAGIC = 0x4B544431;
+    public static final int CHUNK_ROWS = 1 << 16;
+    public static final int MAX_OPPONENTS = 127;
+
+    // TO_BEAT and CHOICE hold the code + 2, so Moves.LEAD is 0 and a pass is 1; every OPPONENTS byte holds the card
+    // count of one opponent in turn order, with the high bit set while it is active; OPTIONS is a bitset over play codes
+    public enum Column {
+        GAME(Integer.BYTES), SEAT(Byte.BYTES), HAND(Long.BYTES), PILE(Long.BYTES), OPPONENTS(0), TO_BEAT(Short.BYTES),
+        OPTIONS(Moves.WORDS * Long.BYTES), CHOICE(Short.BYTES), POSITION(Byte.BYTES);
+
+        private final int width;
+
+        Column(int width) {
+            this.width = width;
+        }
+
+        public int width(int opponents) {
+            return this == OPPONENTS ? opponents : width;
+        }
+    }
+
+    static final Column[] COLUMNS = Column.values();
+    static final int ACTIVE = 0x80;
+
+    public static TrainingLog create(Path path) throws IOException {
+        return new TrainingLog(FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING));
+    }
+
+    public static TrainingLog append(Path path) throws IOException {
+        return new TrainingLog(FileChannel.open(path, CREATE, WRITE, APPEND));
+    }
+
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[][] planes = new byte[COLUMNS.length][];
+    private byte[] compressed = new byte[1 << 16];
+    private int capacity = CHUNK_ROWS;
+    private int opponents = -1;
+    private int rows = 0;
+    private int gameStart = 0;
+    private long games = 0;
+    private long written = 0;
+
+    private TrainingLog(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        if (channel.size() == 0) {
+            var header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(MAGIC).flip();
+            while (header.hasRemaining()) channel.write(header);
+        }
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long rows() {
+        return written + rows;
+    }
+
+    @Override
+    public void onDeal(int[] players, long[] hands, int seats, long seed) {
+        if (seats - 1 > MAX_OPPONENTS) throw new IllegalArgumentException();
+
+        if (seats - 1 != opponents) {
+            flush();
+            opponents = seats - 1;
+            for (int c = 0; c < COLUMNS.length; c++) planes[c] = new byte[COLUMNS[c].width(opponents) * capacity];
+        }
+
+        rows = gameStart;
+    }
+
+    @Override
+    public void onTurn(int seat, Context context, int toBeat, long[] options) {
+        if (rows == capacity) grow();
+
+        int r = rows++;
+        put(Column.GAME, r, games);
+        put(Column.SEAT, r, seat);
+        put(Column.HAND, r, context.handBits());
+        put(Column.PILE, r, context.pileBits());
+        put(Column.TO_BEAT, r, toBeat + 2);
+        for (int w = 0; w < Moves.WORDS; w++) put(Column.OPTIONS, r, w * Long.BYTES, Long.BYTES, options[w]);
+        for (int o = 0; o < opponents; o++) {
+            put(Column.OPPONENTS, r, o, 1, Math.min(context.cardCount(o), ACTIVE - 1) | (context.isActive(o) ? ACTIVE : 0));
+        }
+    }
+
+    @Override
+    public void onDecision(int seat, Brain brain, int options, int code, long nanos) {
+        put(Column.CHOICE, rows - 1, code + 2);
+    }
+
+    @Override
+    public void onGameEnd(int rounds, int[] positions, int seats) {
+        for (int r = gameStart; r < rows; r++) put(Column.POSITION, r, positions[planes[Column.SEAT.ordinal()][r]]);
+
+        games++;
+        gameStart = rows;
+        if (rows >= CHUNK_ROWS) flush();
+    }
+
+    private void put(Column column, int row, long value) {
+        put(column, row, 0, column.width, value);
+    }
+
+    private void put(Column column, int row, int offset, int bytes, long value) {
+        byte[] plane = planes[column.ordinal()];
+        for (int b = 0; b < bytes; b++, value >>>= 8) plane[(offset + b) * capacity + row] = (byte) value;
+    }
+
+    private void grow() {
+        int larger = capacity * 2;
+
+        for (int c = 0; c < COLUMNS.length; c++) {
+            byte[] grown = new byte[COLUMNS[c].width(opponents) * larger];
+            for (int b = 0; b < COLUMNS[c].width(opponents); b++) System.arraycopy(planes[c], b * capacity, grown, b * larger, capacity);
+            planes[c] = grown;
+        }
+
+        capacity = larger;
+    }
+
+    // writes every finished game; rows of a game still being played stay buffered
+    public void flush() {
+        int count = gameStart;
+        if (count == 0) return;
+
+        try {
+            var lengths = ByteBuffer.allocate(Integer.BYTES * (2 + COLUMNS.length)).order(ByteOrder.LITTLE_ENDIAN).putInt(count).putInt(opponents);
+            var columns = new ByteBuffer[COLUMNS.length];
+
+            for (int c = 0; c < COLUMNS.length; c++) {
+                columns[c] = compress(planes[c], COLUMNS[c].width(opponents), count);
+                lengths.putInt(columns[c].remaining());
+            }
+
+            lengths.flip();
+            while (lengths.hasRemaining()) channel.write(lengths);
+            for (var column : columns) while (column.hasRemaining()) channel.write(column);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (int c = 0; c < COLUMNS.length; c++) {
+            int width = COLUMNS[c].width(opponents);
+            for (int b = 0; b < width; b++) System.arraycopy(planes[c], b * capacity + count, planes[c], b * capacity, rows - count);
+        }
+
+        written += count;
+        rows -= count;
+        gameStart -= count;
+    }
+
+    private ByteBuffer compress(byte[] plane, int width, int count) {
+        deflater.reset();
+        for (int b = 0; b < width; b++) {
+            deflater.setInput(plane, b * capacity, count);
+            while (!deflater.needsInput()) deflate();
+        }
+
+        deflater.finish();
+        while (!deflater.finished()) deflate();
+
+        return ByteBuffer.wrap(Arrays.copyOf(compressed, (int) deflater.getBytesWritten()));
+    }
+
+    private void deflate() {
+        int length = (int) deflater.getBytesWritten();
+        if (length == compressed.length) compressed = Arrays.copyOf(compressed, length * 2);
+        deflater.deflate(compressed, length, compressed.length - length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        deflater.end();
+        channel.close();
+    }
+}
@@ -0,0 +1,109 @@
+package dev.dejohn.killer.host;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+// the remote end of a Connection. requests are answered with the policy in order on the reading thread, queueing the
+// answers while more requests are buffered and writing them together once the socket has to be read again; a
+// concurrent client instead answers each request on its own virtual thread, for policies slow enough to hold up
+// every other table
+public final class Client implements AutoCloseable {
+    public interface Policy {
+        int choose(Protocol.Request request);
+    }
+
+    public static Client connect(SocketAddress address, Policy policy) throws IOException {
+        return new Client(Protocol.connect(address), policy, false);
+    }
+
+    public static Client concurrent(SocketAddress address, Policy policy) throws IOException {
+        return new Client(Protocol.connect(address), policy, true);
+    }
+
+    private final SocketChannel channel;
+    private final Policy policy;
+    private final boolean isConcurrent;
+    private final Outbox outbox;
+    private final Inbox inbox;
+    private final Thread reader;
+    private final LongAdder decisions = new LongAdder();
+    private volatile Exception failure;
+
+    private Client(SocketChannel channel, Policy policy, boolean isConcurrent) {
+        this.channel = channel;
+        this.policy = policy;
+        this.isConcurrent = isConcurrent;
+        this.outbox = new Outbox(channel);
+        this.inbox = new Inbox(channel);
+        this.reader = Thread.ofVirtual().name("client-reader").start(this::serve);
+    }
+
+    public long decisions() {
+        return decisions.sum();
+    }
+
+    // what stopped the client, or null while it runs or when the host closed the connection
+    public Exception failure() {
+        return failure;
+    }
+
+    private void serve() {
+        var request = new Protocol.Request();
+        var buffer = inbox.buffer();
+
+        try {
+            while (true) {
+                if (!inbox.isReady()) outbox.flush();
+
+                int type = inbox.next();
+                if (type < 0) break;
+                if (type != Protocol.DECIDE) throw new IOException("unexpected frame type " + type);
+                if (inbox.remaining() < Protocol.DECIDE_SIZE - Protocol.HEADER) throw new IOException("short decide frame");
+
+                if (isConcurrent) {
+                    var pending = new Protocol.Request();
+                    Protocol.getDecide(buffer, pending);
+                    Thread.ofVirtual().start(() -> answer(pending));
+                    continue;
+                }
+
+                Protocol.getDecide(buffer, request);
+                int code = policy.choose(request);
+
+                Protocol.putChoice(outbox.begin(Protocol.CHOICE_SIZE), request.id(), code);
+                outbox.end();
+                decisions.increment();
+            }
+        }
+        catch (Exception e) {
+            if (channel.isOpen()) failure = e;
+        }
+    }
+
+    private void answer(Protocol.Request request) {
+        try {
+            int code = policy.choose(request);
+
+            Protocol.putChoice(outbox.begin(Protocol.CHOICE_SIZE), request.id(), code);
+            outbox.commit();
+            decisions.increment();
+        }
+        catch (Exception e) {
+            if (channel.isOpen() && failure == null) failure = e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+
+        try {
+            reader.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.dejohn.killer.host;
+
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Histogram;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// the host's end of one client socket, shared by every RemoteBrain seated through it. at most window requests are in
+// flight at once; tables beyond that queue in arrival order, which keeps a busy client from being flooded and no
+// table from being starved. requests are queued by the tables and written by the connection's own writer thread: a
+// table's thread is interrupted when its game is cancelled or over budget, and an interrupt during a socket write
+// would close the channel under every other table
+public final class Connection implements AutoCloseable {
+    public static final int DEFAULT_WINDOW = 256;
+    public static final int MAX_BRAINS = 1 << 16;
+
+    public static Connection accept(ServerSocketChannel server) throws IOException {
+        return accept(server, DEFAULT_WINDOW);
+    }
+
+    public static Connection accept(ServerSocketChannel server, int window) throws IOException {
+        if (window < 1) throw new IllegalArgumentException();
+        return new Connection(Protocol.configure(server.accept()), window);
+    }
+
+    private final SocketChannel channel;
+    private final Outbox outbox;
+    private final Inbox inbox;
+    private final Semaphore window;
+    private final Histogram latencies = Histogram.exponential();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Thread reader;
+    private final Thread writer;
+    private volatile RemoteBrain[] brains = {};
+    private volatile IOException failure;
+
+    private Connection(SocketChannel channel, int window) {
+        this.channel = channel;
+        this.outbox = new Outbox(channel);
+        this.inbox = new Inbox(channel);
+        this.window = new Semaphore(window, true);
+        this.reader = Thread.ofVirtual().name("connection-reader").start(this::read);
+        this.writer = Thread.ofVirtual().name("connection-writer").start(this::write);
+    }
+
+    // a seat played by the client; table is passed along with every request so the client can tell its games apart
+    public RemoteBrain brain(int table) {
+        lock.lock();
+        try {
+            if (brains.length == MAX_BRAINS) throw new IllegalStateException();
+
+            var brain = new RemoteBrain(this, brains.length, table);
+            brains = Arrays.copyOf(brains, brains.length + 1);
+            brains[brains.length - 1] = brain;
+            return brain;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    // round trips in nanoseconds, from sending a request to its choice arriving
+    public Histogram latencies() {
+        return latencies;
+    }
+
+    public boolean isOpen() {
+        return failure == null && channel.isOpen();
+    }
+
+    IOException failure() {
+        return failure;
+    }
+
+    void send(int id, int table, int toBeat, Context context, int[] codes, int n) throws IOException {
+        try {
+            window.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        if (failure != null) throw failure;
+
+        Protocol.putDecide(outbox.begin(Protocol.MAX_FRAME), id, table, toBeat, context, codes, n);
+        outbox.end();
+        LockSupport.unpark(writer);
+    }
+
+    // requests queued while a write is under way go out together with the next one
+    private void write() {
+        while (channel.isOpen()) {
+            LockSupport.park(this);
+
+            try {
+                outbox.flush();
+            }
+            catch (IOException e) {
+                if (failure == null) failure = e;
+                close(channel);
+            }
+        }
+    }
+
+    private void read() {
+        var buffer = inbox.buffer();
+
+        try {
+            for (int type; (type = inbox.next()) >= 0; ) {
+                if (type != Protocol.CHOICE) throw new IOException("unexpected frame type " + type);
+                if (inbox.remaining() < Protocol.CHOICE_SIZE - Protocol.HEADER) throw new IOException("short choice frame");
+
+                int id = buffer.getInt();
+                int code = buffer.getShort();
+
+                // only an answer to a request actually sent, once, gives its permit back
+                var brains = this.brains;
+                if (id >>> 16 < brains.length && brains[id >>> 16].complete(id, code)) window.release();
+            }
+
+            failure = new EOFException("client closed the connection");
+        }
+        catch (IOException e) {
+            failure = e;
+        }
+        finally {
+            // nothing will release the window again, so let every table waiting on it through to see the failure
+            window.release(Integer.MAX_VALUE / 2);
+            for (var brain : brains) brain.fail();
+        }
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        LockSupport.unpark(writer);
+
+        try {
+            reader.join();
+            writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
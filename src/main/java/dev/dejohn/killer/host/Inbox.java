@@ -0,0 +1,66 @@
+package dev.dejohn.killer.host;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+
+import static dev.dejohn.killer.host.Protocol.HEADER;
+import static dev.dejohn.killer.host.Protocol.MAX_FRAME;
+
+// reads as much as the socket has and hands out the frames one at a time
+final class Inbox {
+    private static final int CAPACITY = 1 << 16;
+
+    private final SocketChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CAPACITY).order(ByteOrder.LITTLE_ENDIAN).flip();
+    private int end = 0;
+
+    Inbox(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    // whether a whole frame is already buffered, so next() will not block
+    boolean isReady() {
+        skip();
+        if (buffer.remaining() < HEADER) return false;
+
+        int length = Short.toUnsignedInt(buffer.getShort(buffer.position()));
+        return !isValid(length) || buffer.remaining() >= Short.BYTES + length;
+    }
+
+    // the type of the next frame, with its body at the buffer's position; -1 once the peer has closed. whatever the
+    // caller leaves unread of a frame is skipped on the next call
+    int next() throws IOException {
+        while (!isReady()) {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) return -1;
+        }
+
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (!isValid(length)) throw new IOException("bad frame length " + length);
+
+        end = buffer.position() + length;
+        return buffer.get();
+    }
+
+    // bytes left of the current frame's body
+    int remaining() {
+        return end - buffer.position();
+    }
+
+    private void skip() {
+        if (buffer.position() < end) buffer.position(end);
+        end = 0;
+    }
+
+    private static boolean isValid(int length) {
+        return length >= HEADER - Short.BYTES && length <= MAX_FRAME - Short.BYTES;
+    }
+}
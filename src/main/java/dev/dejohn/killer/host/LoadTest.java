@@ -0,0 +1,101 @@
+package dev.dejohn.killer.host;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Deck;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Histogram;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.SplittableRandom;
+
+// every seat of every table played by simulated clients over loopback, which pick a random option and sometimes pass
+public final class LoadTest {
+    private static final int SEATS = 4;
+    private static final double PASS_RATE = 0.2;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || !args[0].equals("tcp") && !args[0].equals("unix")) {
+            System.err.println("usage: LoadTest <tcp|unix> [tables] [clients] [games per table] [concurrency] [window]");
+            System.exit(2);
+        }
+
+        int tables = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long games = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : tables;
+        int window = args.length > 5 ? Integer.parseInt(args[5]) : Connection.DEFAULT_WINDOW;
+
+        Path directory = args[0].equals("unix") ? Files.createTempDirectory("killer") : null;
+        SocketAddress address = directory != null ? UnixDomainSocketAddress.of(directory.resolve("host.socket")) : Protocol.loopback(0);
+
+        try (var server = Protocol.bind(address)) {
+            address = server.getLocalAddress();
+
+            var simulated = new ArrayList<Client>();
+            var connections = new ArrayList<Connection>();
+            for (int c = 0; c < clients; c++) {
+                var random = new SplittableRandom(c);
+                simulated.add(Client.connect(address, request -> choose(request, random)));
+                connections.add(Connection.accept(server, window));
+            }
+
+            long start = System.nanoTime();
+
+            try (var host = new TableHost(concurrency)) {
+                for (int t = 0; t < tables; t++) {
+                    var brains = new LinkedHashSet<Brain>();
+                    for (int seat = 0; seat < SEATS; seat++) brains.add(connections.get((t * SEATS + seat) % clients).brain(t));
+                    host.open(Deck.natural().seeded(t), brains, games);
+                }
+
+                long least = -1, most = -1;
+                for (var table : host.tables()) {
+                    table.await();
+
+                    // how far the others had got when the first table finished
+                    if (least < 0) {
+                        least = Long.MAX_VALUE;
+                        for (var other : host.tables()) {
+                            least = Math.min(least, other.played());
+                            most = Math.max(most, other.played());
+                        }
+                    }
+                }
+
+                long nanos = System.nanoTime() - start;
+                long decisions = 0;
+                for (var client : simulated) decisions += client.decisions();
+
+                var latencies = Histogram.exponential();
+                for (var connection : connections) latencies.addAll(connection.latencies());
+
+                System.out.printf("%s: %d tables, %d clients, %d games in %.2f s, %.0f games/s, %.0f decisions/s%n",
+                    args[0], tables, clients, tables * games, nanos / 1e9, tables * games * 1e9 / nanos, decisions * 1e9 / nanos);
+                System.out.printf("games per table when the first table finished: %d to %d of %d%n", least, most, games);
+                System.out.println("round trip (ns): " + latencies);
+            }
+
+            for (var client : simulated) client.close();
+            for (var connection : connections) connection.close();
+        }
+        finally {
+            if (directory != null) {
+                Files.deleteIfExists(directory.resolve("host.socket"));
+                Files.deleteIfExists(directory);
+            }
+        }
+    }
+
+    private static int choose(Protocol.Request request, SplittableRandom random) {
+        if (!request.isLeading() && (request.optionCount() == 0 || random.nextDouble() < PASS_RATE)) return Action.PASS_CODE;
+        return request.option(random.nextInt(request.optionCount()));
+    }
+
+    private LoadTest() {}
+}
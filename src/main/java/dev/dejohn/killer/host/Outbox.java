@@ -0,0 +1,90 @@
+package dev.dejohn.killer.host;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// frames from any number of threads, written in arrival order. whoever commits while nobody is writing becomes the
+// writer and keeps swapping buffers until nothing is pending, so frames queued meanwhile share a single write
+final class Outbox {
+    private static final int CAPACITY = 1 << 16;
+
+    private final SocketChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocateDirect(CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+    private boolean isWriting = false;
+    private IOException failure;
+
+    Outbox(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    // locks the outbox and returns the buffer to put one frame of at most this many bytes into; end or commit must
+    // follow. a full buffer blocks until the writer has swapped it out
+    ByteBuffer begin(int bytes) throws IOException {
+        lock.lock();
+
+        while (failure == null && pending.remaining() < bytes) drained.awaitUninterruptibly();
+        if (failure != null) {
+            lock.unlock();
+            throw failure;
+        }
+
+        return pending;
+    }
+
+    // queues the frame without writing it
+    void end() {
+        lock.unlock();
+    }
+
+    void commit() throws IOException {
+        drain();
+    }
+
+    void flush() throws IOException {
+        lock.lock();
+        drain();
+    }
+
+    // called with the lock held; a committer that finds a writer at work leaves its frame to that writer
+    private void drain() throws IOException {
+        if (isWriting) {
+            lock.unlock();
+            return;
+        }
+
+        isWriting = true;
+        try {
+            while (pending.position() > 0) {
+                var out = pending;
+                pending = writing;
+                writing = out;
+                drained.signalAll();
+
+                lock.unlock();
+                try {
+                    out.flip();
+                    while (out.hasRemaining()) channel.write(out);
+                    out.clear();
+                }
+                catch (IOException e) {
+                    lock.lock();
+                    failure = e;
+                    drained.signalAll();
+                    throw e;
+                }
+                lock.lock();
+            }
+        }
+        finally {
+            isWriting = false;
+            lock.unlock();
+        }
+    }
+}
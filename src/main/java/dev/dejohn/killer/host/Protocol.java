@@ -0,0 +1,146 @@
+package dev.dejohn.killer.host;
+
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Moves;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+// every frame is a u16 length of the rest of the frame and a u8 type. the host sends DECIDE: u32 id, u32 table, i16
+// toBeat (Moves.LEAD when leading), i64 hand, i64 pile, u8 opponent count, a byte per opponent in turn order (card
+// count, high bit set while active), u8 option count and a byte per option code; the client answers every DECIDE with
+// CHOICE: u32 id, i16 code (one of the options, or Action.PASS_CODE when not leading). all values are little-endian
+public final class Protocol {
+    public static final byte DECIDE = 1;
+    public static final byte CHOICE = 2;
+    public static final int MAX_OPPONENTS = 127;
+
+    static final int ACTIVE = 0x80;
+    static final int HEADER = Short.BYTES + Byte.BYTES;
+    static final int CHOICE_SIZE = HEADER + Integer.BYTES + Short.BYTES;
+    static final int DECIDE_SIZE = HEADER + 2 * Integer.BYTES + Short.BYTES + 2 * Long.BYTES + 2 * Byte.BYTES;
+    static final int MAX_FRAME = DECIDE_SIZE + MAX_OPPONENTS + Action.PLAY_COUNT;
+
+    public static final class Request {
+        private int id;
+        private int table;
+        private int toBeat;
+        private long hand;
+        private long pile;
+        private int opponentCount;
+        private final byte[] opponents = new byte[MAX_OPPONENTS];
+        private int optionCount;
+        private final int[] options = new int[Action.PLAY_COUNT];
+
+        public int id() {
+            return id;
+        }
+
+        public int table() {
+            return table;
+        }
+
+        public int toBeat() {
+            return toBeat;
+        }
+
+        public boolean isLeading() {
+            return toBeat == Moves.LEAD;
+        }
+
+        public long hand() {
+            return hand;
+        }
+
+        public long pile() {
+            return pile;
+        }
+
+        public int opponentCount() {
+            return opponentCount;
+        }
+
+        public int cardCount(int opponent) {
+            return opponents[opponent] & ACTIVE - 1;
+        }
+
+        public boolean isActive(int opponent) {
+            return (opponents[opponent] & ACTIVE) != 0;
+        }
+
+        public int optionCount() {
+            return optionCount;
+        }
+
+        public int option(int i) {
+            return options[i];
+        }
+    }
+
+    // binds to a TCP or, given a UnixDomainSocketAddress, a Unix-domain address
+    public static ServerSocketChannel bind(SocketAddress address) throws IOException {
+        var server = address instanceof UnixDomainSocketAddress ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        return server.bind(address);
+    }
+
+    public static SocketChannel connect(SocketAddress address) throws IOException {
+        return configure(SocketChannel.open(address));
+    }
+
+    static SocketChannel configure(SocketChannel channel) throws IOException {
+        if (supportsNoDelay(channel)) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return channel;
+    }
+
+    private static boolean supportsNoDelay(NetworkChannel channel) {
+        return channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY);
+    }
+
+    public static SocketAddress loopback(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    static void putDecide(ByteBuffer out, int id, int table, int toBeat, Context context, int[] codes, int n) {
+        int opponents = context.opponentCount();
+        if (opponents > MAX_OPPONENTS) throw new IllegalArgumentException();
+
+        out.putShort((short) (DECIDE_SIZE - Short.BYTES + opponents + n)).put(DECIDE)
+            .putInt(id).putInt(table).putShort((short) toBeat).putLong(context.handBits()).putLong(context.pileBits())
+            .put((byte) opponents);
+
+        for (int o = 0; o < opponents; o++) {
+            out.put((byte) (Math.min(context.cardCount(o), ACTIVE - 1) | (context.isActive(o) ? ACTIVE : 0)));
+        }
+
+        out.put((byte) n);
+        for (int i = 0; i < n; i++) out.put((byte) codes[i]);
+    }
+
+    static void getDecide(ByteBuffer in, Request request) {
+        request.id = in.getInt();
+        request.table = in.getInt();
+        request.toBeat = in.getShort();
+        request.hand = in.getLong();
+        request.pile = in.getLong();
+        request.opponentCount = Byte.toUnsignedInt(in.get());
+        in.get(request.opponents, 0, request.opponentCount);
+        request.optionCount = Byte.toUnsignedInt(in.get());
+        for (int i = 0; i < request.optionCount; i++) request.options[i] = Byte.toUnsignedInt(in.get());
+    }
+
+    static void putChoice(ByteBuffer out, int id, int code) {
+        out.putShort((short) (CHOICE_SIZE - Short.BYTES)).put(CHOICE).putInt(id).putShort((short) code);
+    }
+
+    private Protocol() {}
+}
@@ -0,0 +1,130 @@
+package dev.dejohn.killer.host;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.game.Action;
+import dev.dejohn.killer.game.Context;
+import dev.dejohn.killer.game.Moves;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// a seat whose decisions are made by a client on the other end of a Connection. the calling thread parks until the
+// choice arrives; interrupting it abandons the request, and a late answer to it is ignored. an answer is published
+// together with the id it answers, so one meant for an abandoned request can never complete a later one
+public final class RemoteBrain implements Brain {
+    private static final int WAITING = Integer.MIN_VALUE;
+    private static final int ABANDONED = Integer.MIN_VALUE + 1;
+
+    private final Connection connection;
+    private final int slot;
+    private final int table;
+    private final int[] codes = new int[Action.PLAY_COUNT];
+    private int sequence = 0;
+    // the id of the latest request in the high half and its answer, WAITING or ABANDONED in the low half
+    private final AtomicLong state = new AtomicLong(pack(0, ABANDONED));
+    // abandoned requests the client has yet to answer, each still holding a permit of the connection's window
+    private final Set<Integer> abandoned = ConcurrentHashMap.newKeySet();
+    private volatile Thread waiter;
+
+    RemoteBrain(Connection connection, int slot, int table) {
+        this.connection = connection;
+        this.slot = slot;
+        this.table = table;
+    }
+
+    public int table() {
+        return table;
+    }
+
+    @Override
+    public <T> Action.Play<T> getAction(Context context, Stream<? extends Action.Play<T>> options) {
+        List<? extends Action.Play<T>> plays = options.toList();
+        return find(plays, decide(context, Moves.LEAD, plays));
+    }
+
+    @Override
+    public <T> Action<T> getAction(Context context, Action.Play<?> toBeat, Stream<? extends Action.Play<T>> options) {
+        List<? extends Action.Play<T>> plays = options.toList();
+        int code = decide(context, toBeat.encode(), plays);
+        return code == Action.PASS_CODE ? Action.pass() : find(plays, code);
+    }
+
+    private static <T> Action.Play<T> find(List<? extends Action.Play<T>> plays, int code) {
+        for (var play : plays) if (play.encode() == code) return play;
+        throw new IllegalStateException("client chose " + code + ", which is not an option");
+    }
+
+    private int decide(Context context, int toBeat, List<? extends Action.Play<?>> plays) {
+        int n = 0;
+        for (var play : plays) codes[n++] = play.encode();
+
+        int id = slot << 16 | (sequence = sequence + 1 & 0xFFFF);
+        waiter = Thread.currentThread();
+        state.set(pack(id, WAITING));
+
+        long start = System.nanoTime();
+        boolean isSent = false;
+        int result;
+
+        try {
+            connection.send(id, table, toBeat, context, codes, n);
+            isSent = true;
+
+            while ((result = (int) state.get()) == WAITING) {
+                if (connection.failure() != null) throw new UncheckedIOException(connection.failure());
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+
+                LockSupport.park(this);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            waiter = null;
+            if (isSent && (int) state.get() == WAITING) abandon(id);
+        }
+
+        connection.latencies().record(System.nanoTime() - start);
+        return result;
+    }
+
+    // listed before the state gives the request up, so an answer that finds it given up also finds it listed
+    private void abandon(int id) {
+        abandoned.add(id);
+        if (!state.compareAndSet(pack(id, WAITING), pack(id, ABANDONED))) abandoned.remove(id);
+    }
+
+    // whether id was a request still waiting for its answer, whose window permit can now be returned
+    boolean complete(int id, int code) {
+        if (!state.compareAndSet(pack(id, WAITING), pack(id, code))) return abandoned.remove(id);
+
+        var thread = waiter;
+        if (thread != null) LockSupport.unpark(thread);
+        return true;
+    }
+
+    void fail() {
+        var thread = waiter;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private static long pack(int id, int code) {
+        return (long) id << 32 | code & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public String toString() {
+        return "remote " + table;
+    }
+}
@@ -0,0 +1,127 @@
+package dev.dejohn.killer.host;
+
+import dev.dejohn.killer.Brain;
+import dev.dejohn.killer.cards.Deck;
+import dev.dejohn.killer.game.Game;
+import dev.dejohn.killer.game.Tournament;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// plays any number of tables at once, each a Game looping on its own virtual thread. a table takes one of the host's
+// slots per game and gives it back when the game ends; the slots are handed out in arrival order, so concurrency
+// bounds the games in progress and every table waits its turn instead of one table playing many games in a row
+public final class TableHost implements AutoCloseable {
+    public static final class Table {
+        private final int id;
+        private final Game game;
+        private final List<Brain> brains;
+        private final long games;
+        private final long[][] positions;
+        private final Thread thread;
+        private volatile long played = 0;
+        private volatile Throwable failure;
+
+        private Table(int id, Deck deck, Set<? extends Brain> brains, long games, Semaphore slots) {
+            this.id = id;
+            this.game = Game.headless(deck, brains);
+            this.brains = List.copyOf(brains);
+            this.games = games;
+            this.positions = new long[brains.size()][brains.size()];
+            this.thread = Thread.ofVirtual().name("table-" + id).unstarted(() -> run(slots));
+        }
+
+        private void run(Semaphore slots) {
+            try {
+                for (long i = 0; i < games; i++) {
+                    slots.acquire();
+                    try {
+                        game.start();
+                    }
+                    finally {
+                        slots.release();
+                    }
+
+                    for (int seat = 0; seat < brains.size(); seat++) positions[seat][game.positionOf(brains.get(seat))]++;
+                    played = i + 1;
+                }
+            }
+            catch (InterruptedException e) {
+                failure = new CancellationException();
+            }
+            catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        public int id() {
+            return id;
+        }
+
+        public Game game() {
+            return game;
+        }
+
+        public long played() {
+            return played;
+        }
+
+        public boolean isDone() {
+            return !thread.isAlive();
+        }
+
+        // standings by seat, in the order the brains were given
+        public Tournament.Result await() throws InterruptedException {
+            thread.join();
+
+            if (failure instanceof RuntimeException e) throw e;
+            if (failure instanceof Error e) throw e;
+            if (failure != null) throw new IllegalStateException(failure);
+
+            return new Tournament.Result(played, positions);
+        }
+
+        public void cancel() {
+            thread.interrupt();
+        }
+    }
+
+    private final Semaphore slots;
+    private final AtomicInteger ids = new AtomicInteger();
+    private final List<Table> tables = new CopyOnWriteArrayList<>();
+
+    public TableHost(int concurrency) {
+        if (concurrency < 1) throw new IllegalArgumentException();
+        this.slots = new Semaphore(concurrency, true);
+    }
+
+    public Table open(Deck deck, Set<? extends Brain> brains, long games) {
+        if (brains.size() < 2 || games < 0) throw new IllegalArgumentException();
+
+        var table = new Table(ids.getAndIncrement(), deck, brains, games, slots);
+        tables.add(table);
+        table.thread.start();
+        return table;
+    }
+
+    public List<Table> tables() {
+        return List.copyOf(tables);
+    }
+
+    // cancels every table still playing and waits for them to stop, unless the caller is interrupted first
+    @Override
+    public void close() {
+        for (var table : tables) table.cancel();
+
+        try {
+            for (var table : tables) table.thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}